@@ -0,0 +1,77 @@
+package mazeescape;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Boards the benchmarks run on. Sizes are given as "rowsxcols" so they read well
+// as JMH parameters
+final class BenchmarkBoards {
+    
+    static final double DT = 1.0 / GameLoop.DEFAULT_TICK_RATE;
+    
+    private BenchmarkBoards() {
+    }
+    
+    static int rows(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+    
+    static int cols(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+    
+    // A level 1 game on a board of the given size, started and running
+    static MazeSimulation startedGame(String size) {
+        MazeSimulation game = new MazeSimulation(1, rows(size), cols(size));
+        game.step(DT, MazeSimulation.START);
+        return game;
+    }
+    
+    // Open board with ~30% of the inner cells walled at random
+    static MazeGrid randomBoard(int size, Random rand) {
+        MazeGrid maze = new MazeGrid(size, size);
+        for (int r = 1; r < size - 1; r++) {
+            for (int c = 1; c < size - 1; c++) {
+                maze.set(r, c, rand.nextDouble() < 0.3 ? MazeGrid.WALL : MazeGrid.EMPTY);
+            }
+        }
+        return maze;
+    }
+    
+    // Input for a player walking back and forth along a row, 40 ticks each way.
+    // Before each tick it sends the enemies back to where they started every 600
+    // ticks and tops up the level clock, so the level never ends mid-measurement
+    static final class Walk {
+        
+        private final MazeSimulation game;
+        private final int[] startRow;
+        private final int[] startCol;
+        private long ticks;
+        
+        Walk(MazeSimulation game) {
+            this.game = game;
+            EnemySwarm enemies = game.getEnemies();
+            this.startRow = Arrays.copyOf(enemies.row, enemies.count);
+            this.startCol = Arrays.copyOf(enemies.col, enemies.count);
+        }
+        
+        void reset() {
+            EnemySwarm enemies = game.getEnemies();
+            for (int i = 0; i < enemies.count; i++) {
+                enemies.moveTo(i, startRow[i], startCol[i]);
+            }
+            game.setTimeLeft(game.getLevelTime());
+        }
+        
+        int nextInput() {
+            long i = ticks++;
+            if (i % 600 == 0) {
+                reset();
+            }
+            if (game.getTimeLeft() < 10) {
+                game.setTimeLeft(game.getLevelTime());
+            }
+            return (i / 40) % 2 == 0 ? MazeSimulation.LEFT : MazeSimulation.RIGHT;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package mazeescape;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Tick cost of the enemy swarm as the enemy count grows, on a 1025x1025 board.
+// Collision and proximity go through the swarm's cell index and should stay flat
+// from 1 to 10,000 enemies; the naive benchmarks scan every enemy for comparison.
+// Stepping itself walks every enemy's timer, so it grows with the count. Enemies
+// spawn far enough out that none reaches the player, which is the case every tick
+// of a real level pays for, and go back to their spawn cells every iteration.
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnemySwarmBenchmark {
+    
+    private static final int SIZE = 1025;
+    private static final int FLASH_DISTANCE = MazeSimulation.FLASH_DISTANCE;
+    private static final int MIN_SPAWN_DISTANCE = 64;
+    
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int enemies;
+    
+    private final int playerRow = SIZE / 2;
+    private final int playerCol = SIZE / 2;
+    private FlowField field;
+    private EnemySwarm swarm;
+    private int[] spawnRow;
+    private int[] spawnCol;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        MazeGrid maze = BenchmarkBoards.randomBoard(SIZE, new Random(42));
+        maze.set(playerRow, playerCol, MazeGrid.EMPTY);
+        field = new FlowField(SIZE, SIZE);
+        field.update(maze, playerRow, playerCol);
+        
+        Random rand = new Random(enemies);
+        swarm = new EnemySwarm(SIZE, SIZE);
+        swarm.reset(enemies, 0.5);
+        spawnRow = new int[enemies];
+        spawnCol = new int[enemies];
+        while (swarm.count < enemies) {
+            int r = rand.nextInt(SIZE);
+            int c = rand.nextInt(SIZE);
+            int distance = field.distance(r, c);
+            if (distance >= MIN_SPAWN_DISTANCE && distance != FlowField.UNREACHABLE) {
+                spawnRow[swarm.count] = r;
+                spawnCol[swarm.count] = c;
+                swarm.add(r, c);
+            }
+        }
+    }
+    
+    @Setup(Level.Iteration)
+    public void respawn() {
+        for (int i = 0; i < swarm.count; i++) {
+            swarm.moveTo(i, spawnRow[i], spawnCol[i]);
+        }
+    }
+    
+    @Benchmark
+    public void step() {
+        swarm.step(BenchmarkBoards.DT, field, FLASH_DISTANCE, 0);
+    }
+    
+    @Benchmark
+    public boolean indexedChecks() {
+        return swarm.anyAt(playerRow, playerCol) | swarm.anyWithin(field, playerRow, playerCol, FLASH_DISTANCE);
+    }
+    
+    @Benchmark
+    public boolean naiveChecks() {
+        return naiveCollision() | naiveProximity();
+    }
+    
+    private boolean naiveCollision() {
+        for (int i = 0; i < swarm.count; i++) {
+            if (swarm.row[i] == playerRow && swarm.col[i] == playerCol) return true;
+        }
+        return false;
+    }
+    
+    private boolean naiveProximity() {
+        for (int i = 0; i < swarm.count; i++) {
+            if (field.distance(swarm.row[i], swarm.col[i]) <= FLASH_DISTANCE) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package mazeescape;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Building a level's board with each generator, from the default 15x19 up to
+// boards that only fit on screen under the camera, and laying out the whole
+// level on top of it - the work LevelPool takes off the game thread
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MazeGenerationBenchmark {
+    
+    @Param({"15x19", "63x63", "255x255", "1023x1023"})
+    public String size;
+    
+    @Param({"eller", "scatter"})
+    public String generator;
+    
+    private int rows;
+    private int cols;
+    private MazeGenerator mazeGenerator;
+    private final Random rand = new Random(1);
+    
+    @Setup
+    public void setUp() {
+        rows = BenchmarkBoards.rows(size);
+        cols = BenchmarkBoards.cols(size);
+        mazeGenerator = MazeGenerator.named(generator, 1);
+    }
+    
+    @Benchmark
+    public MazeGrid generateMaze() {
+        return LevelLayout.generateMaze(1, rows, cols, mazeGenerator, rand);
+    }
+    
+    @Benchmark
+    public LevelLayout layOutLevel() {
+        return new LevelLayout(1, rows, cols, mazeGenerator, rand);
+    }
+}
@@ -0,0 +1,58 @@
+package mazeescape;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// GameView rendering into an offscreen image, headless. paint is everything
+// paintComponent draws for a full view; frame is a whole game loop frame, a tick
+// followed by the render the loop would ask Swing for, with the player walking
+// as in SimulationBenchmark
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    
+    @Param({"15x19", "255x255"})
+    public String size;
+    
+    private MazeSimulation game;
+    private GameView view;
+    private BufferedImage image;
+    private Graphics2D g;
+    private BenchmarkBoards.Walk walk;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = BenchmarkBoards.startedGame(size);
+        view = new GameView(game);
+        Dimension viewSize = view.getPreferredSize();
+        image = new BufferedImage(viewSize.width, viewSize.height, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+        walk = new BenchmarkBoards.Walk(game);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+    
+    @Benchmark
+    public BufferedImage paint() {
+        view.renderTo(g, image.getWidth(), image.getHeight());
+        return image;
+    }
+    
+    @Benchmark
+    public BufferedImage frame() {
+        view.tick(BenchmarkBoards.DT, walk.nextInput());
+        view.renderFrame(1.0);
+        view.renderTo(g, image.getWidth(), image.getHeight());
+        return image;
+    }
+}
@@ -0,0 +1,57 @@
+package mazeescape;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Entry point of target/benchmarks.jar:
+//   java -jar target/benchmarks.jar [JMH options] [benchmark regex]
+// Unless told otherwise on the command line, every benchmark is measured for both
+// throughput and average time with the GC profiler attached (allocation rate and
+// bytes per operation), and the results are written as JSON to
+// jmh-results/latest.json. Keep one file per commit to compare them:
+//   java -jar target/benchmarks.jar -rff jmh-results/$(git rev-parse --short HEAD).json
+public class RunBenchmarks {
+    
+    private static final String DEFAULT_RESULT_FILE = "jmh-results/latest.json";
+    
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList() || commandLine.shouldListWithParams() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats()) {
+            // Nothing to measure - let JMH's own launcher print the lists
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getBenchModes().isEmpty()) {
+            options.mode(Mode.Throughput).mode(Mode.AverageTime);
+        }
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        String resultFile = commandLine.getResult().orElse(DEFAULT_RESULT_FILE);
+        Path parent = Path.of(resultFile).toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        options.result(resultFile);
+        
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,50 @@
+package mazeescape;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One simulation tick and its two hot parts, on level 1, with the player walking
+// back and forth along a row (see BenchmarkBoards.Walk)
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+    
+    @Param({"15x19", "255x255"})
+    public String size;
+    
+    private MazeSimulation game;
+    private BenchmarkBoards.Walk walk;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = BenchmarkBoards.startedGame(size);
+        walk = new BenchmarkBoards.Walk(game);
+    }
+    
+    @Setup(Level.Iteration)
+    public void resetEnemies() {
+        walk.reset();
+    }
+    
+    // What the game loop steps each tick
+    @Benchmark
+    public void tick() {
+        game.step(BenchmarkBoards.DT, walk.nextInput());
+    }
+    
+    @Benchmark
+    public boolean updateEnemy() {
+        game.updateEnemy(BenchmarkBoards.DT);
+        return game.isEnemyNear();
+    }
+    
+    @Benchmark
+    public int checkCollisions() {
+        game.checkCollisions();
+        return game.getLives();
+    }
+}
@@ -0,0 +1,144 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// A bot that plays the game through the same input word a player's keys make.
+// Every step it looks at the board afresh: a breadth-first search out from every
+// enemy that can move marks the cells they could reach before the player gets
+// past, and a second one from the player, over the cells that are left, finds
+// the nearest orb - or the real exit once they're all eaten, or in endless mode
+// the deepest cell - and the bot holds the direction of the first step there.
+// With no safe way to anything, it steps to the neighbour furthest from the
+// enemies. Frozen enemies only block their own cell. Doesn't allocate after the
+// first step on a board size.
+final class AutoPlayer {
+    
+    private static final int DANGER_DISTANCE = 1; // cells this close to a moving enemy are avoided
+    private static final int NONE = -1;
+    
+    private int[] enemyDistance = new int[0];
+    private int[] distance = new int[0];
+    private int[] firstStep = new int[0]; // neighbour of the player's cell each cell was reached through
+    private int[] queue = new int[0];
+    
+    // The input for the game's next step
+    int nextInput(MazeSimulation game) {
+        if (!game.isStarted()) return MazeSimulation.START;
+        if (game.isGameOver()) return 0;
+        if (game.isPaused()) return MazeSimulation.PAUSE;
+        
+        MazeGrid maze = game.getMaze();
+        MazeSimulation.Player player = game.getPlayer();
+        int cols = maze.getCols();
+        int cells = maze.getRows() * cols;
+        if (distance.length != cells) {
+            enemyDistance = new int[cells];
+            distance = new int[cells];
+            firstStep = new int[cells];
+            queue = new int[cells];
+        }
+        int here = maze.index(player.row, player.col);
+        
+        markDanger(maze, game.getEnemies());
+        int target = findTarget(maze, here, game);
+        int next = target != NONE ? firstStep[target] : safestNeighbour(maze, here);
+        if (next == NONE || next == here) return 0;
+        
+        if (next == here - cols) return MazeSimulation.UP;
+        if (next == here + cols) return MazeSimulation.DOWN;
+        if (next == here - 1) return MazeSimulation.LEFT;
+        return MazeSimulation.RIGHT;
+    }
+    
+    // Path distance from the nearest enemy that can move, up to DANGER_DISTANCE + 1;
+    // 0 on any enemy's cell, frozen or not
+    private void markDanger(MazeGrid maze, EnemySwarm enemies) {
+        Arrays.fill(enemyDistance, Integer.MAX_VALUE);
+        int cols = maze.getCols();
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < enemies.count; i++) {
+            int cell = maze.index(enemies.row[i], enemies.col[i]);
+            if (enemyDistance[cell] == 0) continue;
+            enemyDistance[cell] = 0;
+            if (!enemies.isFrozen(i)) {
+                queue[tail++] = cell;
+            }
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = enemyDistance[cell] + 1;
+            if (next > DANGER_DISTANCE + 1) continue;
+            int r = cell / cols;
+            int c = cell - r * cols;
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = neighbour(maze, r, c, direction);
+                if (neighbour != NONE && enemyDistance[neighbour] > next) {
+                    enemyDistance[neighbour] = next;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+    
+    // Nearest cell worth going to over safe cells, NONE if there's none to reach
+    private int findTarget(MazeGrid maze, int here, MazeSimulation game) {
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        int cols = maze.getCols();
+        boolean orbsLeft = game.getOrbsLeft() > 0;
+        int[] realExit = game.getRealExit();
+        int exit = !MazeSimulation.ENDLESS && !orbsLeft ? maze.index(realExit[0], realExit[1]) : NONE;
+        int deepest = NONE;
+        
+        int head = 0;
+        int tail = 0;
+        distance[here] = 0;
+        firstStep[here] = here;
+        queue[tail++] = here;
+        while (head < tail) {
+            int cell = queue[head++];
+            if (cell != here) {
+                byte type = maze.get(cell);
+                if (orbsLeft && (type == MazeGrid.ORB || type == MazeGrid.POWER_ORB) || cell == exit) return cell;
+                if (deepest == NONE || cell / cols > deepest / cols) {
+                    deepest = cell;
+                }
+            }
+            int r = cell / cols;
+            int c = cell - r * cols;
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = neighbour(maze, r, c, direction);
+                if (neighbour == NONE || distance[neighbour] != Integer.MAX_VALUE
+                        || enemyDistance[neighbour] <= DANGER_DISTANCE) {
+                    continue;
+                }
+                distance[neighbour] = distance[cell] + 1;
+                firstStep[neighbour] = cell == here ? neighbour : firstStep[cell];
+                queue[tail++] = neighbour;
+            }
+        }
+        return MazeSimulation.ENDLESS ? deepest : NONE;
+    }
+    
+    // The open neighbour (or the cell itself) furthest from the moving enemies
+    private int safestNeighbour(MazeGrid maze, int here) {
+        int cols = maze.getCols();
+        int r = here / cols;
+        int c = here - r * cols;
+        int best = here;
+        for (int direction = 0; direction < 4; direction++) {
+            int neighbour = neighbour(maze, r, c, direction);
+            if (neighbour != NONE && enemyDistance[neighbour] > enemyDistance[best]) {
+                best = neighbour;
+            }
+        }
+        return best;
+    }
+    
+    // Open cell next to (r, c) in the given direction - up, down, left, right - or NONE
+    private static int neighbour(MazeGrid maze, int r, int c, int direction) {
+        int nr = r + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+        int nc = c + (direction == 2 ? -1 : direction == 3 ? 1 : 0);
+        return maze.isWall(nr, nc) ? NONE : maze.index(nr, nc);
+    }
+}
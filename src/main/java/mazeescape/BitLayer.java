@@ -0,0 +1,219 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// One bit per cell of a rows x cols board, packed into longs. Every row starts on
+// a fresh word, so a row is a short run of words and moving a whole row of cells
+// sideways is a shift. Counting, emptiness checks and flood fills then work on 64
+// cells at a time instead of one.
+final class BitLayer {
+    
+    private final int rows;
+    private final int cols;
+    private final int wordsPerRow;
+    private final long lastWordMask; // columns that exist in the last word of a row
+    private final long[] words;
+    
+    BitLayer(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = (cols + 63) >>> 6;
+        this.lastWordMask = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+        this.words = new long[rows * wordsPerRow];
+    }
+    
+    int getRows() {
+        return rows;
+    }
+    
+    int getCols() {
+        return cols;
+    }
+    
+    boolean get(int r, int c) {
+        return (words[r * wordsPerRow + (c >>> 6)] & (1L << c)) != 0;
+    }
+    
+    void set(int r, int c) {
+        words[r * wordsPerRow + (c >>> 6)] |= 1L << c;
+    }
+    
+    void clear(int r, int c) {
+        words[r * wordsPerRow + (c >>> 6)] &= ~(1L << c);
+    }
+    
+    void setAll(boolean value) {
+        if (!value) {
+            Arrays.fill(words, 0);
+            return;
+        }
+        for (int r = 0; r < rows; r++) {
+            setRow(r, true);
+        }
+    }
+    
+    void setRow(int r, boolean value) {
+        int from = r * wordsPerRow;
+        int to = from + wordsPerRow;
+        Arrays.fill(words, from, to, value ? -1L : 0);
+        if (value) {
+            words[to - 1] = lastWordMask;
+        }
+    }
+    
+    // Drops the top n rows and moves the rest up; the rows freed at the bottom are
+    // set to fill
+    void shiftUp(int n, boolean fill) {
+        System.arraycopy(words, n * wordsPerRow, words, 0, (rows - n) * wordsPerRow);
+        for (int r = rows - n; r < rows; r++) {
+            setRow(r, fill);
+        }
+    }
+    
+    int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+    
+    boolean isEmpty() {
+        long any = 0;
+        for (long word : words) {
+            any |= word;
+        }
+        return any == 0;
+    }
+    
+    // First set cell at or after the row-major index r * cols + c, as such an
+    // index, or -1 if there is none. Loop with nextSetCell(cell + 1) to visit all
+    int nextSetCell(int fromIndex) {
+        if (fromIndex >= rows * cols) return -1;
+        int r = fromIndex / cols;
+        int c = fromIndex - r * cols;
+        int i = r * wordsPerRow + (c >>> 6);
+        long word = words[i] & (-1L << c);
+        while (true) {
+            if (word != 0) {
+                int row = i / wordsPerRow;
+                int col = ((i - row * wordsPerRow) << 6) + Long.numberOfTrailingZeros(word);
+                return row * cols + col;
+            }
+            if (++i == words.length) return -1;
+            word = words[i];
+        }
+    }
+    
+    // Every cell that is not set here, within the board
+    BitLayer inverted() {
+        BitLayer inverse = new BitLayer(rows, cols);
+        for (int i = 0; i < words.length; i++) {
+            inverse.words[i] = ~words[i];
+        }
+        for (int r = 0; r < rows; r++) {
+            inverse.words[(r + 1) * wordsPerRow - 1] &= lastWordMask;
+        }
+        return inverse;
+    }
+    
+    void and(BitLayer other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+    }
+    
+    void andNot(BitLayer other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+    
+    // Cells of open reachable from (r, c) through edge-adjacent open cells. Each row
+    // is filled sideways a word at a time, then reach spreads to the row below in a
+    // top-down sweep and to the row above in a bottom-up one; sweeps repeat until a
+    // pair of them adds nothing, which takes about as many rounds as the paths have
+    // switchbacks, not as many as they have cells
+    static BitLayer floodFill(BitLayer open, int r, int c) {
+        BitLayer reach = new BitLayer(open.rows, open.cols);
+        if (!open.get(r, c)) return reach;
+        reach.set(r, c);
+        int w = open.wordsPerRow;
+        long[] fill = reach.words;
+        long[] mask = open.words;
+        fillRow(fill, mask, r * w, w);
+        
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int row = 1; row < open.rows; row++) {
+                changed |= spread(fill, mask, (row - 1) * w, row * w, w);
+            }
+            for (int row = open.rows - 2; row >= 0; row--) {
+                changed |= spread(fill, mask, (row + 1) * w, row * w, w);
+            }
+        }
+        return reach;
+    }
+    
+    // Pulls reach from one row into the next through open cells, then fills that
+    // row sideways; true if it gained any cells
+    private static boolean spread(long[] fill, long[] mask, int from, int to, int w) {
+        boolean gained = false;
+        for (int i = 0; i < w; i++) {
+            long grown = fill[to + i] | (fill[from + i] & mask[to + i]);
+            if (grown != fill[to + i]) {
+                fill[to + i] = grown;
+                gained = true;
+            }
+        }
+        if (gained) {
+            fillRow(fill, mask, to, w);
+        }
+        return gained;
+    }
+    
+    // Extends every set bit of the row to the whole open run it sits in. Occluded
+    // (Kogge-Stone) fills do one word in six shift steps per direction; what reaches
+    // the edge of a word carries into the next one
+    private static void fillRow(long[] fill, long[] mask, int start, int w) {
+        long carry = 0;
+        for (int i = start; i < start + w; i++) {
+            long open = mask[i];
+            long gen = fill[i] | (carry & open);
+            long pro = open;
+            gen |= pro & (gen << 1);
+            pro &= pro << 1;
+            gen |= pro & (gen << 2);
+            pro &= pro << 2;
+            gen |= pro & (gen << 4);
+            pro &= pro << 4;
+            gen |= pro & (gen << 8);
+            pro &= pro << 8;
+            gen |= pro & (gen << 16);
+            pro &= pro << 16;
+            gen |= pro & (gen << 32);
+            fill[i] = gen;
+            carry = gen >>> 63;
+        }
+        carry = 0;
+        for (int i = start + w - 1; i >= start; i--) {
+            long open = mask[i];
+            long gen = fill[i] | ((carry << 63) & open);
+            long pro = open;
+            gen |= pro & (gen >>> 1);
+            pro &= pro >>> 1;
+            gen |= pro & (gen >>> 2);
+            pro &= pro >>> 2;
+            gen |= pro & (gen >>> 4);
+            pro &= pro >>> 4;
+            gen |= pro & (gen >>> 8);
+            pro &= pro >>> 8;
+            gen |= pro & (gen >>> 16);
+            pro &= pro >>> 16;
+            gen |= pro & (gen >>> 32);
+            fill[i] = gen;
+            carry = gen & 1;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package mazeescape;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+// Active rendering backend, picked with -Dmaze.renderer=canvas: a Canvas the
+// game loop draws the whole view into at the end of each frame, through a 2- or
+// 3-buffer BufferStrategy, and then shows itself - no repaint() queued on the EDT,
+// no RepaintManager, and the HUD labels' repaints don't hold a frame up. Java2D
+// page flips where the platform lets it, blits the back buffer otherwise; neither
+// waits for vsync on its own, so frames are timed by the game loop at the display's
+// refresh rate and flushed to the screen with Toolkit.sync() straight after show().
+// Drawing is GameView's, from the same published snapshots the Swing path paints.
+// Buffers lost under it (a display mode change, a locked screen on Windows) are
+// drawn again before the frame is shown, and the frame itself drawn again if it
+// still didn't make it. getDrawGraphics() creates a Graphics per frame; nothing
+// else here allocates.
+final class CanvasView extends Canvas {
+    
+    static final int DEFAULT_BUFFERS = 2;
+    
+    private final GameView view;
+    private final FrameTimings timings;
+    private final int buffers;
+    // Made on the EDT when the canvas gets its peer, dropped before it loses it
+    private volatile BufferStrategy strategy;
+    private volatile boolean pageFlipping;
+    
+    CanvasView(GameView view, FrameTimings timings, int buffers) {
+        if (buffers < 2 || buffers > 3) {
+            throw new IllegalArgumentException("Unsupported buffer count: " + buffers + " (expected 2 or 3)");
+        }
+        this.view = view;
+        this.timings = timings;
+        this.buffers = buffers;
+        setPreferredSize(view.getPreferredSize());
+        setBackground(Color.BLACK);
+        // Every frame is drawn in full anyway; AWT's own repaints would only race them
+        setIgnoreRepaint(true);
+        // Keys go to the window, as they do with the Swing view
+        setFocusable(false);
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(buffers);
+        strategy = getBufferStrategy();
+        pageFlipping = strategy.getCapabilities().isPageFlipping();
+    }
+    
+    @Override
+    public void removeNotify() {
+        strategy = null;
+        super.removeNotify();
+    }
+    
+    // How frames reach the screen, for the timings export: "canvas, 2 buffers, page
+    // flipping", or blitting where Java2D couldn't flip; as of the last time the
+    // canvas came on screen
+    String describe() {
+        return "canvas, " + buffers + " buffers, " + (pageFlipping ? "page flipping" : "blitting");
+    }
+    
+    // Draws and shows the latest published frame; called by the game loop after
+    // GameView.renderFrame(). Does nothing while the canvas isn't on screen
+    void present() {
+        BufferStrategy current = strategy;
+        if (current == null) return;
+        try {
+            do {
+                do {
+                    Graphics g = current.getDrawGraphics();
+                    try {
+                        view.paintFrame(g, getWidth(), getHeight());
+                    } finally {
+                        g.dispose();
+                    }
+                } while (current.contentsRestored());
+                long start = System.nanoTime();
+                current.show();
+                Toolkit.getDefaultToolkit().sync();
+                timings.present.record(System.nanoTime() - start);
+            } while (current.contentsLost());
+        } catch (IllegalStateException e) {
+            // The canvas came off the screen between the check above and show() -
+            // only this frame is lost
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package mazeescape;
+
+// Union of the screen rectangles that changed since the last repaint. The game
+// loop adds to it while stepping and takes it when it renders, so a frame only
+// repaints what actually moved. Only touched from the game loop thread.
+final class DirtyRegion {
+    
+    private int minX, minY, maxX, maxY;
+    private boolean empty = true;
+    
+    void add(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        
+        if (empty) {
+            minX = x;
+            minY = y;
+            maxX = x + width;
+            maxY = y + height;
+            empty = false;
+        } else {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x + width);
+            maxY = Math.max(maxY, y + height);
+        }
+    }
+    
+    void addAll(int width, int height) {
+        add(0, 0, width, height);
+    }
+    
+    boolean isEmpty() {
+        return empty;
+    }
+    
+    int getX() {
+        return minX;
+    }
+    
+    int getY() {
+        return minY;
+    }
+    
+    int getWidth() {
+        return maxX - minX;
+    }
+    
+    int getHeight() {
+        return maxY - minY;
+    }
+    
+    void clear() {
+        empty = true;
+    }
+}
@@ -0,0 +1,199 @@
+package mazeescape;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// Eller's algorithm: a perfect maze built one row at a time, in time linear in the
+// number of cells and memory linear in the width. Maze cells sit on the even rows
+// and columns; the cells between them are walls or the passages that join them.
+// Each row joins neighbours from different sets at random, then every set drops
+// at least one passage into the next row; the last row joins whatever is still
+// apart, so everything ends up connected without a single loop.
+//
+// A braiding pass then opens a wall at a share of the dead ends, from 0 (none, a
+// perfect maze) to 1 (no dead ends at all, like a Pac-Man board).
+final class EllerGenerator implements MazeGenerator {
+    
+    // Steps to the four neighbours: up, down, left, right
+    private static final int[] DR = {-1, 1, 0, 0};
+    private static final int[] DC = {0, 0, -1, 1};
+    
+    private final double braid;
+    
+    EllerGenerator(double braid) {
+        if (!(braid >= 0 && braid <= 1)) {
+            throw new IllegalArgumentException("Braid must be between 0 and 1: " + braid);
+        }
+        this.braid = braid;
+    }
+    
+    @Override
+    public MazeGrid generate(int rows, int cols, RandomGenerator rand) {
+        MazeGrid maze = new MazeGrid(rows, cols);
+        maze.fill(MazeGrid.WALL);
+        Rows carver = new Rows(cols);
+        int height = (rows - 1) / 2 + 1;
+        for (int i = 0; i < height; i++) {
+            boolean lastRow = i == height - 1;
+            carver.carve(maze, 2 * i, lastRow, !lastRow, rand);
+        }
+        
+        // Ring of paths along the border
+        maze.fillRow(0, MazeGrid.EMPTY);
+        maze.fillRow(rows - 1, MazeGrid.EMPTY);
+        for (int r = 0; r < rows; r++) {
+            maze.set(r, 0, MazeGrid.EMPTY);
+            maze.set(r, cols - 1, MazeGrid.EMPTY);
+        }
+        
+        for (int r = 2; r < rows - 1; r += 2) {
+            braidRow(maze, r, rand);
+        }
+        return maze;
+    }
+    
+    // One pass of the algorithm over a board of the given width, carried on a row
+    // at a time for as many rows as needed; only the sets of the last row carved
+    // are remembered
+    static final class Rows {
+        
+        private final int width;
+        
+        // Set of each cell in the current row. Ids stay below width, so a small
+        // union-find over them is enough to tell sets apart while joining
+        private final int[] set;
+        private final int[] parent;
+        private final int[] root;
+        private final int[] lastCell;
+        private final int[] carried;
+        private final boolean[] hasDrop;
+        private final boolean[] drop;
+        
+        Rows(int cols) {
+            width = (cols - 1) / 2 + 1;
+            set = new int[width];
+            parent = new int[width];
+            root = new int[width];
+            lastCell = new int[width];
+            carried = new int[width];
+            hasDrop = new boolean[width];
+            drop = new boolean[width];
+            restart();
+        }
+        
+        // Forgets which cells the rows so far connected: the next row starts with
+        // every cell in a set of its own, as the first row does
+        void restart() {
+            for (int j = 0; j < width; j++) {
+                set[j] = j;
+                parent[j] = j;
+            }
+        }
+        
+        // Carves maze row r (an even board row): joins neighbours that aren't
+        // connected yet - at random, or all of them when joinAll is set - and then,
+        // if dropDown is set, opens passages into row r + 1, at least one per set
+        void carve(MazeGrid maze, int r, boolean joinAll, boolean dropDown, RandomGenerator rand) {
+            for (int j = 0; j < width; j++) {
+                maze.set(r, 2 * j, MazeGrid.EMPTY);
+            }
+            
+            for (int j = 0; j < width - 1; j++) {
+                int a = find(set[j]);
+                int b = find(set[j + 1]);
+                if (a != b && (joinAll || rand.nextBoolean())) {
+                    parent[b] = a;
+                    maze.set(r, 2 * j + 1, MazeGrid.EMPTY);
+                }
+            }
+            if (!dropDown) return;
+            
+            // Random drops into the next row, then one more for every set left without
+            Arrays.fill(hasDrop, false);
+            for (int j = 0; j < width; j++) {
+                root[j] = find(set[j]);
+                drop[j] = rand.nextBoolean();
+                hasDrop[root[j]] |= drop[j];
+                lastCell[root[j]] = j;
+            }
+            for (int j = 0; j < width; j++) {
+                if (!hasDrop[root[j]] && lastCell[root[j]] == j) {
+                    drop[j] = true;
+                    hasDrop[root[j]] = true;
+                }
+            }
+            
+            // Cells below a drop keep their set, the rest start new ones; ids are
+            // handed out again from 0
+            Arrays.fill(carried, -1);
+            int nextId = 0;
+            for (int j = 0; j < width; j++) {
+                if (drop[j]) {
+                    maze.set(r + 1, 2 * j, MazeGrid.EMPTY);
+                    if (carried[root[j]] < 0) {
+                        carried[root[j]] = nextId++;
+                    }
+                    set[j] = carried[root[j]];
+                }
+            }
+            for (int j = 0; j < width; j++) {
+                if (!drop[j]) {
+                    set[j] = nextId++;
+                }
+            }
+            for (int id = 0; id < nextId; id++) {
+                parent[id] = id;
+            }
+        }
+        
+        private int find(int id) {
+            while (parent[id] != id) {
+                parent[id] = parent[parent[id]];
+                id = parent[id];
+            }
+            return id;
+        }
+    }
+    
+    // Opens one wall at each dead end of maze row r with probability braid, towards
+    // a neighbour that is a dead end too when there is one, so both go at once.
+    // Rows below r may not be carved yet; their cells then never count as dead ends
+    void braidRow(MazeGrid maze, int r, RandomGenerator rand) {
+        if (braid == 0) return;
+        int cols = maze.getCols();
+        for (int c = 2; c < cols - 1; c += 2) {
+            if (openNeighbours(maze, r, c) != 1 || rand.nextDouble() >= braid) continue;
+            
+            // Closed sides with a cell behind them, picked uniformly with dead ends first
+            int pick = -1;
+            int seen = 0;
+            boolean pickIsDeadEnd = false;
+            for (int d = 0; d < 4; d++) {
+                int wr = r + DR[d];
+                int wc = c + DC[d];
+                int nr = r + 2 * DR[d];
+                int nc = c + 2 * DC[d];
+                if (!maze.isWall(wr, wc) || !maze.inBounds(nr, nc)) continue;
+                boolean deadEnd = openNeighbours(maze, nr, nc) == 1;
+                if (deadEnd && !pickIsDeadEnd) {
+                    pick = d;
+                    seen = 1;
+                    pickIsDeadEnd = true;
+                } else if (deadEnd == pickIsDeadEnd && rand.nextInt(++seen) == 0) {
+                    pick = d;
+                }
+            }
+            if (pick >= 0) {
+                maze.set(r + DR[pick], c + DC[pick], MazeGrid.EMPTY);
+            }
+        }
+    }
+    
+    private static int openNeighbours(MazeGrid maze, int r, int c) {
+        int open = 0;
+        for (int d = 0; d < 4; d++) {
+            if (!maze.isWall(r + DR[d], c + DC[d])) open++;
+        }
+        return open;
+    }
+}
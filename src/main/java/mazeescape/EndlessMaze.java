@@ -0,0 +1,101 @@
+package mazeescape;
+
+import java.util.random.RandomGenerator;
+
+// The board of endless mode: a window onto a maze that goes on downwards for ever,
+// CHUNK_ROWS rows at a time. An Eller pass lays the maze out, a maze row per call
+// to generate(), into the chunk at the bottom of the window. Each chunk is a pass
+// of its own that starts from the passages the chunk above dropped into it and
+// joins all its sets on its last row, so it's connected within itself and to the
+// chunk above - never only through chunks that are gone. When the player gets to
+// the second chunk from the bottom, the top chunk is dropped and everything moves
+// up by a chunk (shift()), so the window - and the memory behind it - keeps its
+// size however deep the player goes.
+//
+// Grid coordinates are relative to the window; getRowOffset() is how far below
+// the top of the maze its first row is.
+final class EndlessMaze {
+    
+    // Even, so maze cells stay on even rows as the window moves, and one tile of
+    // GameView's board cache high, so a shift moves the cache by whole tiles
+    static final int CHUNK_ROWS = 16;
+    
+    private final MazeGrid grid;
+    private final EllerGenerator generator;
+    private final EllerGenerator.Rows carver;
+    private final RandomGenerator rand;
+    private long rowOffset = 0;
+    private int nextRow = 0; // next maze row to carve, in grid rows; the window is complete at grid.getRows()
+    
+    // Lays out the whole first window, with chunksBehind chunks kept above the
+    // player's before they're dropped
+    EndlessMaze(int cols, int chunksBehind, double braid, RandomGenerator rand) {
+        if (chunksBehind < 1) {
+            throw new IllegalArgumentException("Endless mode needs at least one chunk behind the player: " + chunksBehind);
+        }
+        this.grid = new MazeGrid(windowRows(chunksBehind), cols);
+        this.generator = new EllerGenerator(braid);
+        this.carver = new EllerGenerator.Rows(cols);
+        this.rand = rand;
+        grid.fill(MazeGrid.WALL);
+        grid.fillRow(0, MazeGrid.EMPTY); // the only end the maze has
+        while (!isComplete()) {
+            generate();
+        }
+    }
+    
+    // Window height: the chunks behind, the player's chunk and the one ahead of it
+    static int windowRows(int chunksBehind) {
+        return (chunksBehind + 2) * CHUNK_ROWS;
+    }
+    
+    MazeGrid getGrid() {
+        return grid;
+    }
+    
+    long getRowOffset() {
+        return rowOffset;
+    }
+    
+    // True once every row of the window is laid out
+    boolean isComplete() {
+        return nextRow >= grid.getRows();
+    }
+    
+    // Lays out one more maze row (two grid rows) at the bottom of the window; true
+    // if that finished the bottom chunk. Costs O(cols)
+    boolean generate() {
+        if (isComplete()) return false;
+        int r = nextRow;
+        if (r % CHUNK_ROWS == 0) {
+            carver.restart();
+        }
+        boolean chunkEnd = r % CHUNK_ROWS == CHUNK_ROWS - 2;
+        carver.carve(grid, r, chunkEnd, true, rand);
+        
+        // Paths down both sides
+        int cols = grid.getCols();
+        for (int row = r; row <= r + 1; row++) {
+            grid.set(row, 0, MazeGrid.EMPTY);
+            grid.set(row, cols - 1, MazeGrid.EMPTY);
+        }
+        if (rowOffset + r > 0) {
+            generator.braidRow(grid, r, rand);
+        }
+        nextRow += 2;
+        return isComplete();
+    }
+    
+    // Whether the player is deep enough into the window for it to move on
+    boolean shouldShift(int playerRow) {
+        return playerRow >= grid.getRows() - 2 * CHUNK_ROWS;
+    }
+    
+    // Drops the top chunk and moves the rest up by CHUNK_ROWS; the bottom chunk
+    // is then laid out by the following calls to generate()
+    void shift() {
+        grid.shiftUp(CHUNK_ROWS);
+        rowOffset += CHUNK_ROWS;
+        nextRow -= CHUNK_ROWS;
+    }
+}
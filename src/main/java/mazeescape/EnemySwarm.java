@@ -0,0 +1,207 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// All enemies of a level, stored as parallel arrays (struct of arrays) so stepping
+// them is a tight loop over primitives. A cell-bucket index - an intrusive doubly
+// linked list of enemies per cell - answers "is there an enemy on this cell" in
+// O(1), and "is one within d steps of the player" by looking only at the cells
+// within d steps, however many enemies there are.
+final class EnemySwarm {
+    
+    private static final int NONE = -1;
+    
+    private final int rows;
+    private final int cols;
+    
+    int count = 0;
+    int[] row = new int[0];
+    int[] col = new int[0];
+    int[] prevRow = new int[0]; // cell at the start of the current step
+    int[] prevCol = new int[0];
+    double[] moveTimer = new double[0];
+    long[] freezeUntil = new long[0];
+    boolean[] frozen = new boolean[0];
+    boolean[] prevFrozen = new boolean[0];
+    boolean[] near = new boolean[0]; // within the flash distance of the player
+    boolean[] prevNear = new boolean[0];
+    private double moveInterval = 1.0; // seconds per step
+    
+    // Spatial index
+    private final int[] cellHead;
+    private int[] nextInCell = new int[0];
+    private int[] prevInCell = new int[0];
+    
+    EnemySwarm(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cellHead = new int[rows * cols];
+        Arrays.fill(cellHead, NONE);
+    }
+    
+    // Removes every enemy and makes room for count new ones, moving at speed steps per second
+    void reset(int count, double speed) {
+        for (int i = 0; i < this.count; i++) {
+            cellHead[row[i] * cols + col[i]] = NONE;
+        }
+        if (row.length < count) {
+            row = new int[count];
+            col = new int[count];
+            prevRow = new int[count];
+            prevCol = new int[count];
+            moveTimer = new double[count];
+            freezeUntil = new long[count];
+            frozen = new boolean[count];
+            prevFrozen = new boolean[count];
+            near = new boolean[count];
+            prevNear = new boolean[count];
+            nextInCell = new int[count];
+            prevInCell = new int[count];
+        }
+        this.count = 0;
+        this.moveInterval = 1.0 / speed;
+    }
+    
+    // Most enemies there can be until the next reset
+    int capacity() {
+        return row.length;
+    }
+    
+    void add(int r, int c) {
+        int i = count++;
+        row[i] = prevRow[i] = r;
+        col[i] = prevCol[i] = c;
+        moveTimer[i] = 0;
+        freezeUntil[i] = 0;
+        frozen[i] = prevFrozen[i] = false;
+        near[i] = prevNear[i] = false;
+        link(i);
+    }
+    
+    // Snapshot of the current state, compared against after the step
+    void savePositions() {
+        System.arraycopy(row, 0, prevRow, 0, count);
+        System.arraycopy(col, 0, prevCol, 0, count);
+        System.arraycopy(frozen, 0, prevFrozen, 0, count);
+        System.arraycopy(near, 0, prevNear, 0, count);
+    }
+    
+    // True if enemy i moved or changed how it's drawn since savePositions()
+    boolean changed(int i) {
+        return row[i] != prevRow[i] || col[i] != prevCol[i] || frozen[i] != prevFrozen[i] || near[i] != prevNear[i];
+    }
+    
+    // Moves every enemy that isn't frozen one step along the flow field once its
+    // movement timer runs out; nowMillis is the clock freeze deadlines are set against.
+    // Returns how many moved
+    int step(double deltaTime, FlowField field, int flashDistance, long nowMillis) {
+        int moves = 0;
+        for (int i = 0; i < count; i++) {
+            frozen[i] = nowMillis < freezeUntil[i];
+            if (!frozen[i]) {
+                moveTimer[i] += deltaTime;
+                if (moveTimer[i] >= moveInterval) {
+                    moveTimer[i] = 0;
+                    int next = field.nextStep(row[i], col[i]);
+                    if (next >= 0) {
+                        moveTo(i, next / cols, next % cols);
+                        moves++;
+                    }
+                }
+            }
+            near[i] = field.distance(row[i], col[i]) <= flashDistance;
+        }
+        return moves;
+    }
+    
+    void moveTo(int i, int r, int c) {
+        unlink(i);
+        row[i] = r;
+        col[i] = c;
+        link(i);
+    }
+    
+    // Moves every enemy n rows up, as the board under them scrolls by n rows; the
+    // ones that fall off the top are removed and the rest keep their order
+    void shiftUp(int n) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            cellHead[row[i] * cols + col[i]] = NONE;
+        }
+        for (int i = 0; i < count; i++) {
+            if (row[i] < n) continue;
+            row[kept] = row[i] - n;
+            col[kept] = col[i];
+            prevRow[kept] = prevRow[i] - n;
+            prevCol[kept] = prevCol[i];
+            moveTimer[kept] = moveTimer[i];
+            freezeUntil[kept] = freezeUntil[i];
+            frozen[kept] = frozen[i];
+            prevFrozen[kept] = prevFrozen[i];
+            near[kept] = near[i];
+            prevNear[kept] = prevNear[i];
+            kept++;
+        }
+        count = kept;
+        for (int i = 0; i < count; i++) {
+            link(i);
+        }
+    }
+    
+    void freezeAll(long untilMillis) {
+        Arrays.fill(freezeUntil, 0, count, untilMillis);
+        Arrays.fill(frozen, 0, count, true);
+    }
+    
+    boolean isFrozen(int i) {
+        return frozen[i];
+    }
+    
+    // O(1) - is any enemy standing on (r, c)
+    boolean anyAt(int r, int c) {
+        return cellHead[r * cols + c] != NONE;
+    }
+    
+    // Is any enemy within maxDistance steps of the field's target. Path distance is
+    // never shorter than Manhattan distance, so only the diamond of cells around the
+    // target can qualify - at most 2d(d+1)+1 buckets, independent of the enemy count
+    boolean anyWithin(FlowField field, int targetRow, int targetCol, int maxDistance) {
+        for (int dr = -maxDistance; dr <= maxDistance; dr++) {
+            int r = targetRow + dr;
+            if (r < 0 || r >= rows) continue;
+            int span = maxDistance - Math.abs(dr);
+            int fromCol = Math.max(0, targetCol - span);
+            int toCol = Math.min(cols - 1, targetCol + span);
+            for (int c = fromCol; c <= toCol; c++) {
+                if (cellHead[r * cols + c] != NONE && field.distance(r, c) <= maxDistance) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private void link(int i) {
+        int cell = row[i] * cols + col[i];
+        int head = cellHead[cell];
+        nextInCell[i] = head;
+        prevInCell[i] = NONE;
+        if (head != NONE) {
+            prevInCell[head] = i;
+        }
+        cellHead[cell] = i;
+    }
+    
+    private void unlink(int i) {
+        int next = nextInCell[i];
+        int prev = prevInCell[i];
+        if (prev != NONE) {
+            nextInCell[prev] = next;
+        } else {
+            cellHead[row[i] * cols + col[i]] = next;
+        }
+        if (next != NONE) {
+            prevInCell[next] = prev;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package mazeescape;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+
+// Delayed one-shot actions (message timeouts, respawns, level changes) timed
+// against the game clock instead of the wall clock. The clock only moves when
+// advance() is called from the simulation thread and stands still while paused,
+// so every action runs on that thread and waits out a pause with the game.
+final class EventScheduler {
+    
+    // Handle returned by schedule(), used to cancel an action before it runs
+    static final class Event implements Comparable<Event> {
+        private final Runnable action;
+        private final double dueAt;
+        private final long sequence;
+        private volatile boolean cancelled = false;
+        private volatile boolean done = false;
+        
+        private Event(Runnable action, double dueAt, long sequence) {
+            this.action = action;
+            this.dueAt = dueAt;
+            this.sequence = sequence;
+        }
+        
+        void cancel() {
+            cancelled = true;
+        }
+        
+        boolean isPending() {
+            return !cancelled && !done;
+        }
+        
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Double.compare(dueAt, other.dueAt);
+            // Same due time - keep the order they were scheduled in
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+    
+    private final PriorityQueue<Event> queue = new PriorityQueue<>();
+    private final ArrayList<Event> due = new ArrayList<>();
+    private double now = 0;
+    private long nextSequence = 0;
+    private boolean paused = false;
+    
+    // Safe to call from any thread; the action itself always runs on the thread calling advance()
+    synchronized Event schedule(double delaySeconds, Runnable action) {
+        Event event = new Event(action, now + Math.max(0, delaySeconds), nextSequence++);
+        queue.add(event);
+        return event;
+    }
+    
+    // Runs on the next advance(), even while paused
+    Event post(Runnable action) {
+        return schedule(0, action);
+    }
+    
+    synchronized void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+    
+    synchronized boolean isPaused() {
+        return paused;
+    }
+    
+    // Game clock in seconds; doesn't move while paused
+    synchronized double now() {
+        return now;
+    }
+    
+    synchronized void cancelAll() {
+        for (Event event : queue) {
+            event.cancel();
+        }
+        queue.clear();
+    }
+    
+    // Called once per simulation step
+    void advance(double dt) {
+        synchronized (this) {
+            if (!paused) {
+                now += dt;
+            }
+            while (!queue.isEmpty() && queue.peek().dueAt <= now) {
+                due.add(queue.poll());
+            }
+        }
+        
+        // Run outside the lock so actions can schedule or cancel other events
+        for (int i = 0; i < due.size(); i++) {
+            Event event = due.get(i);
+            if (!event.cancelled) {
+                event.done = true;
+                event.action.run();
+            }
+        }
+        due.clear();
+    }
+}
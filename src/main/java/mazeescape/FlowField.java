@@ -0,0 +1,129 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// Shortest-path distance from every open cell of the maze to one target cell (the
+// player), built with a breadth-first search over a preallocated queue. It's only
+// rebuilt when the target moves to another cell or the walls change; in between,
+// any number of chasers read their next step from it in O(1). The search can be
+// capped at a maximum distance, so a rebuild on a huge board only costs the cells
+// within that range; anything further out reads as UNREACHABLE.
+final class FlowField {
+    
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    private final int rows;
+    private final int cols;
+    private final int maxDistance;
+    private final int[] distance;
+    private final int[] queue;
+    private int visited = 0; // cells reached by the last search, at the front of the queue
+    private MazeGrid maze;
+    private int targetRow = -1;
+    private int targetCol = -1;
+    private boolean stale = true;
+    
+    FlowField(int rows, int cols) {
+        this(rows, cols, UNREACHABLE - 1);
+    }
+    
+    FlowField(int rows, int cols, int maxDistance) {
+        this.rows = rows;
+        this.cols = cols;
+        this.maxDistance = maxDistance;
+        this.distance = new int[rows * cols];
+        this.queue = new int[rows * cols];
+        Arrays.fill(distance, UNREACHABLE);
+    }
+    
+    // Call when walls were added or removed in the current maze
+    void invalidate() {
+        stale = true;
+    }
+    
+    // Returns true if the field had to be rebuilt
+    boolean update(MazeGrid maze, int targetRow, int targetCol) {
+        if (!stale && maze == this.maze && targetRow == this.targetRow && targetCol == this.targetCol) {
+            return false;
+        }
+        this.maze = maze;
+        this.targetRow = targetRow;
+        this.targetCol = targetCol;
+        this.stale = false;
+        rebuild();
+        return true;
+    }
+    
+    private void rebuild() {
+        // Only the cells the last search reached need resetting
+        for (int i = 0; i < visited; i++) {
+            distance[queue[i]] = UNREACHABLE;
+        }
+        visited = 0;
+        if (maze.isWall(targetRow, targetCol)) return;
+        
+        int head = 0;
+        int tail = 0;
+        int start = targetRow * cols + targetCol;
+        distance[start] = 0;
+        queue[tail++] = start;
+        
+        while (head < tail) {
+            int index = queue[head++];
+            int r = index / cols;
+            int c = index - r * cols;
+            int next = distance[index] + 1;
+            if (next > maxDistance) continue;
+            
+            // Each cell is queued at most once, so the queue never needs more than rows*cols slots
+            if (r > 0 && visit(index - cols, next)) queue[tail++] = index - cols;
+            if (r < rows - 1 && visit(index + cols, next)) queue[tail++] = index + cols;
+            if (c > 0 && visit(index - 1, next)) queue[tail++] = index - 1;
+            if (c < cols - 1 && visit(index + 1, next)) queue[tail++] = index + 1;
+        }
+        visited = tail;
+    }
+    
+    private boolean visit(int index, int dist) {
+        if (distance[index] != UNREACHABLE || maze.get(index) == MazeGrid.WALL) {
+            return false;
+        }
+        distance[index] = dist;
+        return true;
+    }
+    
+    // Path length from (r, c) to the target, UNREACHABLE if walled off
+    int distance(int r, int c) {
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            return UNREACHABLE;
+        }
+        return distance[r * cols + c];
+    }
+    
+    // Neighbour of (r, c) one step closer to the target as a r * cols + c index,
+    // or -1 if there is none (already there, or no path). Ties go up, down, left, right
+    int nextStep(int r, int c) {
+        int best = distance(r, c);
+        if (best == 0 || best == UNREACHABLE) {
+            return -1;
+        }
+        
+        int step = -1;
+        if (distance(r - 1, c) < best) {
+            best = distance(r - 1, c);
+            step = (r - 1) * cols + c;
+        }
+        if (distance(r + 1, c) < best) {
+            best = distance(r + 1, c);
+            step = (r + 1) * cols + c;
+        }
+        if (distance(r, c - 1) < best) {
+            best = distance(r, c - 1);
+            step = r * cols + c - 1;
+        }
+        if (distance(r, c + 1) < best) {
+            step = r * cols + c + 1;
+        }
+        return step;
+    }
+}
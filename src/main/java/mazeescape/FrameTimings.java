@@ -0,0 +1,92 @@
+package mazeescape;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+// How long the parts of a frame take, each in its own LatencyHistogram with the
+// one thread that records into it:
+//   tick    - a simulation step with its input and HUD values (game loop)
+//   frame   - time between frames handed to the screen, so loop drift and stalls show (game loop)
+//   paint   - drawing a frame: GameView.paintComponent (EDT), or the whole view into
+//             the back buffer with the canvas backend (game loop)
+//   present - BufferStrategy.show() and the sync after it, canvas backend only (game loop)
+//   hud     - applying changed HUD values to the labels (EDT)
+//   input   - a direction pressed to the step that moved the player for it (game loop)
+//   gc      - stop-the-world collector pauses, as the JVM reports them (its notification thread)
+// Recording is a couple of System.nanoTime() calls and doesn't allocate. F2 shows
+// the live numbers over the board; -Dmaze.timings=<file> writes every histogram
+// out when the game exits, with the render backend it ran on, so runs on the two
+// backends can be set side by side.
+final class FrameTimings {
+    
+    static final String HEADER = String.format("%-8s %8s %8s %8s %8s %8s", "", "count", "p50 ms", "p99 ms",
+            "p99.9 ms", "max ms");
+    
+    final LatencyHistogram tick = new LatencyHistogram();
+    final LatencyHistogram frame = new LatencyHistogram();
+    final LatencyHistogram paint = new LatencyHistogram();
+    final LatencyHistogram present = new LatencyHistogram();
+    final LatencyHistogram hud = new LatencyHistogram();
+    final LatencyHistogram input = new LatencyHistogram();
+    final LatencyHistogram gc = new LatencyHistogram();
+    
+    private final String[] names = {"tick", "frame", "paint", "present", "hud", "input", "gc"};
+    private final LatencyHistogram[] histograms = {tick, frame, paint, present, hud, input, gc};
+    
+    // Starts counting collector pauses; the JVM calls back on its own thread.
+    // Concurrent cycles don't stop the game and aren't counted
+    void watchGarbageCollections() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(collector instanceof NotificationEmitter emitter)) continue;
+            emitter.addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                        (CompositeData) notification.getUserData());
+                if (info.getGcAction().equals("end of minor GC") || info.getGcAction().equals("end of major GC")) {
+                    gc.record(info.getGcInfo().getDuration() * 1_000_000L);
+                }
+            }, null, null);
+        }
+    }
+    
+    // The overlay text: HEADER, then a line per histogram
+    String[] lines() {
+        String[] lines = new String[histograms.length + 1];
+        lines[0] = HEADER;
+        for (int i = 0; i < histograms.length; i++) {
+            lines[i + 1] = histograms[i].format(names[i]);
+        }
+        return lines;
+    }
+    
+    int lineCount() {
+        return histograms.length + 1;
+    }
+    
+    // Every histogram, bucket by bucket, as plain text: "name from-ns to-ns count"
+    // lines after a commented summary of each
+    void export(Path file, int tickRate, String renderer) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.printf("# Maze Escape frame timings, %s%n", LocalDateTime.now().withNano(0));
+            out.printf("# %s %s, %s %s (%s), %d cpus, tick rate %d Hz, renderer %s%n",
+                    System.getProperty("java.vm.name"), System.getProperty("java.version"), System.getProperty("os.name"),
+                    System.getProperty("os.version"), System.getProperty("os.arch"),
+                    Runtime.getRuntime().availableProcessors(), tickRate, renderer);
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i].writeTo(out, names[i]);
+            }
+        }
+    }
+}
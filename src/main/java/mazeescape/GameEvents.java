@@ -0,0 +1,136 @@
+package mazeescape;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JDK Flight Recorder events from the game, under "Maze Escape" in JMC, so a
+// standard recording lines levels, ticks, paints, orbs and lives lost up against
+// GC, safepoints and the rest of the JVM's own data:
+//   java -XX:StartFlightRecording:filename=game.jfr,settings=profile -jar target/maze-escape-1.0-SNAPSHOT.jar
+// None of them is kept unless a recording enables it. The game creates them the
+// usual JFR way - new, begin(), commit() - which doesn't allocate once compiled,
+// as the object never leaves the method, and commit() on a disabled event is an
+// empty call. Ticks and frames are on by default but only kept over 1 ms, so a
+// recording holds the slow ones.
+final class GameEvents {
+    
+    private GameEvents() {
+    }
+    
+    @Name("mazeescape.LevelGenerated")
+    @Label("Level Generated")
+    @Category("Maze Escape")
+    @Description("A level laid out: board, obstacles, orbs, exits and enemy spawns")
+    @StackTrace(false)
+    static final class LevelGenerated extends Event {
+        @Label("Level")
+        int level;
+        
+        @Label("Rows")
+        int rows;
+        
+        @Label("Columns")
+        int cols;
+        
+        @Label("Orbs")
+        int orbs;
+        
+        @Label("Enemies")
+        int enemies;
+    }
+    
+    @Name("mazeescape.ChunkGenerated")
+    @Label("Chunk Generated")
+    @Category("Maze Escape")
+    @Description("A chunk of the endless maze filled in with orbs, and the enemies placed on it")
+    @StackTrace(false)
+    static final class ChunkGenerated extends Event {
+        @Label("Chunk")
+        @Description("Chunks from the top of the endless maze")
+        long chunk;
+        
+        @Label("Enemies")
+        int enemies;
+        
+        @Label("Enemies Missing")
+        @Description("Enemies the chunk should have had but had no free cell or room in the swarm for")
+        int enemiesMissing;
+    }
+    
+    @Name("mazeescape.SimulationTick")
+    @Label("Simulation Tick")
+    @Category("Maze Escape")
+    @Description("One fixed simulation step")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static final class SimulationTick extends Event {
+        @Label("Level")
+        int level;
+        
+        @Label("Enemies")
+        int enemies;
+        
+        @Label("Enemy Moves")
+        @Description("Enemies that moved to another cell in this step")
+        int enemyMoves;
+    }
+    
+    @Name("mazeescape.FrameRendered")
+    @Label("Frame Rendered")
+    @Category("Maze Escape")
+    @Description("One frame of the game view drawn: a paint on the EDT, or a canvas frame on the game loop")
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static final class FrameRendered extends Event {
+        @Label("Cells Drawn")
+        @Description("Board cells drawn into cached tiles since the last frame, for tiles coming into view and eaten orbs")
+        int cellsDrawn;
+        
+        @Label("Tiles Painted")
+        int tilesPainted;
+        
+        @Label("Enemies Painted")
+        int enemiesPainted;
+    }
+    
+    @Name("mazeescape.OrbCollected")
+    @Label("Orb Collected")
+    @Category("Maze Escape")
+    @StackTrace(false)
+    static final class OrbCollected extends Event {
+        @Label("Row")
+        int row;
+        
+        @Label("Column")
+        int col;
+        
+        @Label("Power Orb")
+        boolean power;
+        
+        @Label("Combo")
+        int combo;
+        
+        @Label("Score")
+        int score;
+    }
+    
+    @Name("mazeescape.LifeLost")
+    @Label("Life Lost")
+    @Category("Maze Escape")
+    @StackTrace(false)
+    static final class LifeLost extends Event {
+        @Label("Reason")
+        String reason;
+        
+        @Label("Level")
+        int level;
+        
+        @Label("Lives Left")
+        int livesLeft;
+    }
+}
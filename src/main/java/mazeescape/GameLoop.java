@@ -0,0 +1,123 @@
+package mazeescape;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+// Fixed-timestep game loop. The simulation always advances in steps of exactly
+// 1/tickRate seconds, measured with System.nanoTime(); rendering runs at its own
+// (variable) rate and gets the leftover fraction of a step for interpolation.
+final class GameLoop implements Runnable {
+    
+    interface Simulation {
+        void step(double dt);
+        
+        void render(double alpha);
+    }
+    
+    static final int[] SUPPORTED_TICK_RATES = {15, 20, 30, 60, 120, 240};
+    static final int DEFAULT_TICK_RATE = 60;
+    
+    // Upper bound on steps run back to back after a stall (GC pause, slow frame).
+    // Anything beyond that is dropped so the loop can't spiral trying to catch up
+    private static final int MAX_CATCH_UP_STEPS = 5;
+    
+    private final Simulation simulation;
+    private final int tickRate;
+    private final long stepNanos;
+    private final double stepSeconds;
+    private final long frameNanos;
+    private volatile boolean running = false;
+    private Thread thread;
+    private long ticks = 0;
+    
+    // maxFps <= 0 renders once after every pass of the loop
+    GameLoop(Simulation simulation, int tickRate, int maxFps) {
+        if (!isSupportedTickRate(tickRate)) {
+            throw new IllegalArgumentException("Unsupported tick rate: " + tickRate + " Hz (expected one of "
+                    + Arrays.toString(SUPPORTED_TICK_RATES) + ")");
+        }
+        this.simulation = simulation;
+        this.tickRate = tickRate;
+        this.stepNanos = 1_000_000_000L / tickRate;
+        this.stepSeconds = 1.0 / tickRate;
+        this.frameNanos = maxFps > 0 ? 1_000_000_000L / maxFps : 0;
+    }
+    
+    static boolean isSupportedTickRate(int tickRate) {
+        for (int supported : SUPPORTED_TICK_RATES) {
+            if (supported == tickRate) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    int getTickRate() {
+        return tickRate;
+    }
+    
+    long getTicks() {
+        return ticks;
+    }
+    
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+        
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+            
+            // Consume whole steps; the simulation never sees a variable dt
+            int steps = 0;
+            while (accumulator >= stepNanos && steps < MAX_CATCH_UP_STEPS) {
+                simulation.step(stepSeconds);
+                accumulator -= stepNanos;
+                ticks++;
+                steps++;
+            }
+            if (accumulator >= stepNanos) {
+                // Too far behind - keep the fractional part, drop the backlog
+                accumulator %= stepNanos;
+            }
+            
+            if (frameNanos == 0 || now >= nextFrame) {
+                simulation.render((double) accumulator / stepNanos);
+                // Schedule from the ideal frame time so the cadence doesn't drift,
+                // but don't try to make up frames we've missed
+                nextFrame += frameNanos;
+                if (nextFrame < now) {
+                    nextFrame = now + frameNanos;
+                }
+            }
+            
+            // Sleep until whichever comes first: the next step or the next frame
+            long wakeAt = previous + (stepNanos - accumulator);
+            if (frameNanos > 0 && nextFrame < wakeAt) {
+                wakeAt = nextFrame;
+            }
+            long sleep = wakeAt - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+        }
+    }
+}
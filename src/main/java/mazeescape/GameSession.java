@@ -0,0 +1,61 @@
+package mazeescape;
+
+// Everything the game loop thread does for the window apart from Swing itself.
+// A step takes the input queued on the EDT, steps the game through its view,
+// records it and updates the HUD model; a frame hands the HUD values and the
+// changed screen area on, and with the canvas backend draws and shows it. Nothing
+// here touches a Swing component, so it runs headless just the same
+final class GameSession implements GameLoop.Simulation {
+    
+    private final MazeSimulation simulation;
+    private final GameView view;
+    private final InputQueue inputQueue;
+    private final SessionRecording.Recorder recorder; // null if not recording
+    private final HudModel hud;
+    private final FrameTimings timings;
+    private final CanvasView canvasView; // null unless the canvas backend draws the frames
+    
+    GameSession(MazeSimulation simulation, GameView view, InputQueue inputQueue, SessionRecording.Recorder recorder,
+            HudModel hud, FrameTimings timings, CanvasView canvasView) {
+        this.simulation = simulation;
+        this.view = view;
+        this.inputQueue = inputQueue;
+        this.recorder = recorder;
+        this.hud = hud;
+        this.timings = timings;
+        this.canvasView = canvasView;
+        hud.update(simulation);
+        hud.publish();
+    }
+    
+    // One fixed simulation step with the input held or sent since the last one
+    @Override
+    public void step(double dt) {
+        long start = System.nanoTime();
+        int input = inputQueue.poll();
+        view.tick(dt, input);
+        long pressedAt = inputQueue.pressedAt();
+        if (pressedAt != 0) {
+            MazeSimulation.Player player = simulation.getPlayer();
+            if (player.x != player.prevX || player.y != player.prevY) {
+                timings.input.record(System.nanoTime() - pressedAt);
+            }
+        }
+        if (recorder != null) {
+            recorder.record(input, simulation);
+        }
+        hud.update(simulation);
+        timings.tick.record(System.nanoTime() - start);
+    }
+    
+    // Hands the screen area and HUD values changed since the last frame to Swing,
+    // or with the canvas backend draws and shows the frame right here
+    @Override
+    public void render(double alpha) {
+        hud.publish();
+        view.renderFrame(alpha);
+        if (canvasView != null) {
+            canvasView.present();
+        }
+    }
+}
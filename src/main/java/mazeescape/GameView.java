@@ -0,0 +1,888 @@
+package mazeescape;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+// Draws a MazeSimulation: the board through a camera that follows the player,
+// sprites at positions interpolated between simulation steps, and the overlays.
+// It keeps track of the board area each step and frame changed, so a repaint only
+// covers what actually moved. tick() and renderFrame() run on the game loop
+// thread, painting on the EDT; the two only share the RenderSnapshot each frame
+// publishes, which lists the board tiles the loop drew for it. With the canvas backend
+// the panel isn't shown, and CanvasView has the game loop paint the frames itself.
+final class GameView extends JPanel {
+    
+    private static final int CELL_SIZE = MazeSimulation.CELL_SIZE;
+    private static final int MAX_VIEW_ROWS = 21; // bigger boards scroll under a camera
+    private static final int MAX_VIEW_COLS = 27;
+    
+    // Board colors
+    private static final Color BACKGROUND = new Color(20, 20, 40);
+    private static final Color WALL_FILL = new Color(0, 50, 150);
+    private static final Color WALL_EDGE = new Color(0, 100, 255);
+    
+    // Sprite and overlay colors
+    private static final Color FROZEN_ENEMY = new Color(150, 150, 255);
+    private static final Color DANGER_OVERLAY = new Color(255, 0, 0, 50);
+    private static final Color PACMAN_GLOW = new Color(0, 230, 255, 100);
+    private static final Color HINT_DOT = new Color(255, 255, 255, 200);
+    private static final Font COMBO_FONT = new Font("Arial", Font.BOLD, 14);
+    private static final Font TIMINGS_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    
+    // Screen area reserved for the combo indicator in the top-left corner
+    private static final int COMBO_TEXT_WIDTH = 140;
+    private static final int COMBO_TEXT_HEIGHT = 26;
+    private static final TextCache COMBO_TEXT = new TextCache("COMBO x", "");
+    
+    // Frame timings overlay along the bottom of the view, refreshed a few times a second
+    private static final int TIMINGS_LINE_HEIGHT = 13;
+    private static final long TIMINGS_REFRESH_NANOS = 250_000_000L;
+    
+    private final MazeSimulation simulation;
+    private final FrameTimings timings;
+    private MazeGrid shownMaze; // the maze the static layer was built from
+    private long shownRowOffset; // and how far an endless maze had moved on since
+    
+    // Sprites drawn at positions interpolated between steps
+    private double playerDrawX, playerDrawY;
+    private float[] enemyDrawX = new float[0], enemyDrawY = new float[0];
+    
+    // Part of the board on screen, in board pixels; follows the player on boards bigger than the view
+    private final int viewWidth, viewHeight;
+    private int cameraX, cameraY;
+    
+    // What the last frame showed, handed from the game loop to paintComponent
+    private final RenderSnapshot.Exchange frames = new RenderSnapshot.Exchange();
+    
+    // Board area changed since the last frame; only that part of the panel is repainted
+    private final DirtyRegion dirtyRegion = new DirtyRegion();
+    private volatile boolean showRepaintRegions = false; // F3 - outline repainted areas
+    private volatile boolean showTimings = false; // F2 - frame timings overlay
+    private String[] timingsText; // what the overlay shows, null while hidden
+    private long timingsRefreshedAt;
+    private long lastFrameAt = 0;
+    
+    // Path hint - the shortest way to the nearest orb, or to the real exit once
+    // they're all eaten. Its distance map is made the first time the hint is shown,
+    // kept up to date orb by orb while it's shown, and built again from scratch
+    // only for a new board, a scroll or the switch to the exit
+    private volatile boolean showHint = false; // H
+    private TargetDistanceMap hintMap;
+    private boolean hintStale = true;
+    private boolean hintToExit;
+    private boolean hintMapChanged;
+    private int hintFrom = -1; // the player's cell the path was walked from
+    private int[] hintPath = new int[0];
+    private int hintLength = 0;
+    
+    private final MazeLayer mazeLayer = new MazeLayer();
+    
+    // Sprites are pre-rendered once - shape fills and translucent fills allocate
+    // inside Java2D on every call, drawing a cached image doesn't
+    private final BufferedImage[] pacmanSprites = new BufferedImage[4];
+    private final BufferedImage enemySprite;
+    private final BufferedImage enemyNearSprite;
+    private final BufferedImage frozenEnemySprite;
+    // Orbs too: an endless maze redraws a row of board tiles at every shift
+    private final BufferedImage orbSprite;
+    private final BufferedImage powerOrbSprite;
+    private final BufferedImage hintSprite;
+    private final BufferedImage dangerOverlay;
+    private final Rectangle clipBounds = new Rectangle();
+    private int enemiesPainted; // by the last paint, for its JFR event
+    
+    GameView(MazeSimulation simulation) {
+        this(simulation, new FrameTimings());
+    }
+    
+    GameView(MazeSimulation simulation, FrameTimings timings) {
+        this.simulation = simulation;
+        this.timings = timings;
+        MazeGrid maze = simulation.getMaze();
+        viewWidth = Math.min(maze.getCols(), MAX_VIEW_COLS) * CELL_SIZE;
+        viewHeight = Math.min(maze.getRows(), MAX_VIEW_ROWS) * CELL_SIZE;
+        setPreferredSize(new Dimension(viewWidth, viewHeight));
+        
+        for (int direction = 0; direction < pacmanSprites.length; direction++) {
+            pacmanSprites[direction] = createSprite();
+            Graphics2D g = pacmanSprites[direction].createGraphics();
+            drawPacman(g, 0, 0, direction);
+            g.dispose();
+        }
+        enemySprite = createEnemySprite(Color.ORANGE, true);
+        enemyNearSprite = createEnemySprite(Color.RED, true);
+        frozenEnemySprite = createEnemySprite(FROZEN_ENEMY, false);
+        orbSprite = createOrbSprite(Color.YELLOW);
+        powerOrbSprite = createOrbSprite(Color.PINK);
+        hintSprite = createHintSprite();
+        
+        dangerOverlay = createCompatibleImage(viewWidth, viewHeight, Transparency.TRANSLUCENT);
+        Graphics2D g = dangerOverlay.createGraphics();
+        g.setColor(DANGER_OVERLAY);
+        g.fillRect(0, 0, dangerOverlay.getWidth(), dangerOverlay.getHeight());
+        g.dispose();
+        
+        shownMaze = maze;
+        shownRowOffset = simulation.getRowOffset();
+        mazeLayer.rebuild(maze, shownRowOffset);
+        publishFrame();
+    }
+    
+    void toggleRepaintRegions() {
+        showRepaintRegions = !showRepaintRegions;
+        repaint();
+    }
+    
+    // Picked up by the next frame on the game loop thread
+    void toggleTimings() {
+        showTimings = !showTimings;
+    }
+    
+    void toggleHint() {
+        showHint = !showHint;
+    }
+    
+    // Called from the simulation's listener while it steps
+    void orbEaten(int r, int c) {
+        mazeLayer.invalidate(r, c, simulation.getRowOffset());
+        markCellDirty(r, c);
+        if (!hintStale && !hintToExit) {
+            hintMap.removeTarget(r, c);
+            hintMapChanged = true;
+        }
+    }
+    
+    // Steps the simulation once and records what the step changed on screen
+    void tick(double dt, int input) {
+        MazeSimulation.Player player = simulation.getPlayer();
+        EnemySwarm enemies = simulation.getEnemies();
+        int oldRow = player.row;
+        int oldCol = player.col;
+        int oldCombo = simulation.getCombo();
+        boolean wasNear = simulation.isEnemyNear();
+        
+        simulation.step(dt, input);
+        
+        if (simulation.getMaze() != shownMaze) {
+            // New level or a restart - start over with the static part of the board
+            shownMaze = simulation.getMaze();
+            shownRowOffset = simulation.getRowOffset();
+            mazeLayer.rebuild(shownMaze, shownRowOffset);
+            dirtyRegion.addAll(shownMaze.getCols() * CELL_SIZE, shownMaze.getRows() * CELL_SIZE);
+            hintStale = true;
+            return;
+        }
+        if (simulation.getRowOffset() != shownRowOffset) {
+            // An endless maze moved on - the board and everything on it scrolled up
+            mazeLayer.scroll((int) (simulation.getRowOffset() - shownRowOffset));
+            shownRowOffset = simulation.getRowOffset();
+            dirtyRegion.addAll(shownMaze.getCols() * CELL_SIZE, shownMaze.getRows() * CELL_SIZE);
+            hintStale = true;
+            return;
+        }
+        if (!simulation.isStarted()) return;
+        
+        if (simulation.isEnemyNear() != wasNear) {
+            // The danger overlay covers the whole view
+            markViewDirty();
+            return;
+        }
+        if (player.x != player.prevX || player.y != player.prevY) {
+            markSpriteDirty(player.prevX, player.prevY);
+            markSpriteDirty(player.x, player.y);
+        }
+        if (player.row != oldRow || player.col != oldCol) {
+            // Exit highlight follows the player's cell
+            markCellDirty(oldRow, oldCol);
+            markCellDirty(player.row, player.col);
+        }
+        for (int i = 0; i < enemies.count; i++) {
+            if (enemies.changed(i)) {
+                markSpriteDirty(enemies.prevCol[i] * CELL_SIZE, enemies.prevRow[i] * CELL_SIZE);
+                markSpriteDirty(enemies.col[i] * CELL_SIZE, enemies.row[i] * CELL_SIZE);
+            }
+        }
+        if (simulation.getCombo() != oldCombo) {
+            dirtyRegion.add(cameraX, cameraY, COMBO_TEXT_WIDTH, COMBO_TEXT_HEIGHT);
+        }
+    }
+    
+    // Hands the screen area changed since the last frame to Swing
+    void renderFrame(double alpha) {
+        long now = System.nanoTime();
+        if (lastFrameAt != 0) {
+            timings.frame.record(now - lastFrameAt);
+        }
+        lastFrameAt = now;
+        if (!simulation.isStarted()) return;
+        
+        updateDrawPositions(alpha);
+        updateCamera();
+        updateTimingsText(now);
+        updateHint();
+        publishFrame();
+        if (!dirtyRegion.isEmpty()) {
+            // Nothing to repaint while CanvasView shows the frames instead
+            if (isDisplayable()) {
+                repaint(dirtyRegion.getX() - cameraX, dirtyRegion.getY() - cameraY,
+                        dirtyRegion.getWidth(), dirtyRegion.getHeight());
+            }
+            dirtyRegion.clear();
+        }
+    }
+    
+    // Copies what this frame shows into a snapshot for paintComponent. Doesn't allocate
+    // unless a level brings more enemies than any before
+    private void publishFrame() {
+        MazeSimulation.Player player = simulation.getPlayer();
+        EnemySwarm enemies = simulation.getEnemies();
+        int[] realExit = simulation.getRealExit();
+        RenderSnapshot frame = frames.back();
+        
+        // Board tiles this frame shows, drawn now while nothing else touches the maze
+        mazeLayer.prepare(frame, cameraX, cameraY, viewWidth, viewHeight);
+        frame.cameraX = cameraX;
+        frame.cameraY = cameraY;
+        frame.playerX = (int) playerDrawX;
+        frame.playerY = (int) playerDrawY;
+        frame.facing = simulation.getFacing();
+        int count = Math.min(enemies.count, enemyDrawX.length);
+        frame.setEnemyCount(count);
+        for (int i = 0; i < count; i++) {
+            frame.enemyX[i] = (int) enemyDrawX[i];
+            frame.enemyY[i] = (int) enemyDrawY[i];
+            if (enemies.isFrozen(i)) {
+                frame.enemySprite[i] = RenderSnapshot.ENEMY_FROZEN;
+            } else if (enemies.near[i]) {
+                frame.enemySprite[i] = RenderSnapshot.ENEMY_NEAR;
+            } else {
+                frame.enemySprite[i] = RenderSnapshot.ENEMY;
+            }
+        }
+        frame.exitRow = realExit[0];
+        frame.exitCol = realExit[1];
+        frame.exitLit = simulation.getOrbsLeft() <= 0 && player.row == realExit[0] && player.col == realExit[1];
+        frame.enemyNear = simulation.isEnemyNear();
+        frame.combo = simulation.getCombo();
+        frame.timings = timingsText;
+        frame.setHint(hintPath, hintLength, shownMaze.getCols());
+        frames.publish();
+    }
+    
+    // Walks the path hint again when the player changed cell or the map changed,
+    // O(path length); costs nothing while the hint is hidden
+    private void updateHint() {
+        if (!showHint) {
+            if (hintLength > 0) {
+                markHintDirty();
+                hintLength = 0;
+            }
+            hintStale = true;
+            return;
+        }
+        int rows = shownMaze.getRows();
+        int cols = shownMaze.getCols();
+        boolean toExit = !MazeSimulation.ENDLESS && simulation.getOrbsLeft() <= 0;
+        if (hintStale || toExit != hintToExit) {
+            if (hintMap == null) {
+                hintMap = new TargetDistanceMap(rows, cols);
+            }
+            if (toExit) {
+                int[] realExit = simulation.getRealExit();
+                hintMap.targetCell(shownMaze, realExit[0], realExit[1]);
+            } else {
+                hintMap.targetOrbs(shownMaze);
+            }
+            hintToExit = toExit;
+            hintStale = false;
+            hintMapChanged = true;
+        }
+        
+        MazeSimulation.Player player = simulation.getPlayer();
+        int from = player.row * cols + player.col;
+        if (!hintMapChanged && from == hintFrom) return;
+        hintMapChanged = false;
+        hintFrom = from;
+        
+        markHintDirty();
+        int length = 0;
+        for (int cell = hintMap.nextStep(player.row, player.col); cell >= 0;
+                cell = hintMap.nextStep(cell / cols, cell % cols)) {
+            if (length == hintPath.length) {
+                hintPath = Arrays.copyOf(hintPath, Math.max(64, length * 2));
+            }
+            hintPath[length++] = cell;
+        }
+        hintLength = length;
+        markHintDirty();
+    }
+    
+    private void markHintDirty() {
+        int cols = shownMaze.getCols();
+        for (int i = 0; i < hintLength; i++) {
+            markCellDirty(hintPath[i] / cols, hintPath[i] % cols);
+        }
+    }
+    
+    // Formats the overlay text only while it's shown, so the numbers cost nothing otherwise
+    private void updateTimingsText(long now) {
+        if (showTimings) {
+            if (timingsText != null && now - timingsRefreshedAt < TIMINGS_REFRESH_NANOS) return;
+            timingsText = timings.lines();
+            timingsRefreshedAt = now;
+        } else if (timingsText != null) {
+            timingsText = null;
+        } else {
+            return;
+        }
+        int height = timings.lineCount() * TIMINGS_LINE_HEIGHT + 4;
+        dirtyRegion.add(cameraX, cameraY + viewHeight - height, viewWidth, height);
+    }
+    
+    // Keeps the player centred in the view without scrolling past the board edges
+    private void updateCamera() {
+        int maxX = shownMaze.getCols() * CELL_SIZE - viewWidth;
+        int maxY = shownMaze.getRows() * CELL_SIZE - viewHeight;
+        int x = Math.max(0, Math.min(maxX, (int) playerDrawX + CELL_SIZE / 2 - viewWidth / 2));
+        int y = Math.max(0, Math.min(maxY, (int) playerDrawY + CELL_SIZE / 2 - viewHeight / 2));
+        if (x != cameraX || y != cameraY) {
+            cameraX = x;
+            cameraY = y;
+            markViewDirty();
+        }
+    }
+    
+    void updateDrawPositions(double alpha) {
+        MazeSimulation.Player player = simulation.getPlayer();
+        EnemySwarm enemies = simulation.getEnemies();
+        // Sprites are drawn between steps, so last frame's spots need clearing as well
+        double playerX = player.renderX(alpha);
+        double playerY = player.renderY(alpha);
+        if (playerX != playerDrawX || playerY != playerDrawY) {
+            markSpriteDirty(playerDrawX, playerDrawY);
+            markSpriteDirty(playerX, playerY);
+            playerDrawX = playerX;
+            playerDrawY = playerY;
+        }
+        float[] drawX = enemyDrawX;
+        float[] drawY = enemyDrawY;
+        if (drawX.length < enemies.count) {
+            drawX = Arrays.copyOf(drawX, enemies.count);
+            drawY = Arrays.copyOf(drawY, enemies.count);
+        }
+        for (int i = 0; i < enemies.count; i++) {
+            float enemyX = (float) (enemies.prevCol[i] * CELL_SIZE + (enemies.col[i] - enemies.prevCol[i]) * CELL_SIZE * alpha);
+            float enemyY = (float) (enemies.prevRow[i] * CELL_SIZE + (enemies.row[i] - enemies.prevRow[i]) * CELL_SIZE * alpha);
+            if (enemyX != drawX[i] || enemyY != drawY[i]) {
+                markSpriteDirty(drawX[i], drawY[i]);
+                markSpriteDirty(enemyX, enemyY);
+                drawX[i] = enemyX;
+                drawY[i] = enemyY;
+            }
+        }
+        enemyDrawX = drawX;
+        enemyDrawY = drawY;
+    }
+    
+    // Sprites (and the player's glow) stay within one cell of their top-left corner
+    private void markSpriteDirty(double x, double y) {
+        markDirty((int) Math.floor(x) - 1, (int) Math.floor(y) - 1, CELL_SIZE + 3, CELL_SIZE + 3);
+    }
+    
+    private void markCellDirty(int r, int c) {
+        markDirty(c * CELL_SIZE, r * CELL_SIZE, CELL_SIZE + 1, CELL_SIZE + 1);
+    }
+    
+    private void markViewDirty() {
+        dirtyRegion.add(cameraX, cameraY, viewWidth, viewHeight);
+    }
+    
+    // Changes outside the view are dropped, so far-off enemies don't widen the repaint
+    private void markDirty(int x, int y, int width, int height) {
+        if (x < cameraX + viewWidth && x + width > cameraX && y < cameraY + viewHeight && y + height > cameraY) {
+            dirtyRegion.add(x, y, width, height);
+        }
+    }
+    
+    private BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        // A compatible image is kept in video memory by Java2D where possible
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) {
+            gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        }
+        return gc.createCompatibleImage(width, height, transparency);
+    }
+    
+    // Walls, orbs and exits pre-rendered into tiles of TILE_CELLS x TILE_CELLS cells.
+    // Tiles are drawn the first time the view reaches them and kept in a fixed set
+    // of slots, enough to cover the view at any scroll position, so memory doesn't
+    // grow with the board. After that only the cells the simulation changes (eaten
+    // orbs) get redrawn, and painting the board is a few drawImage calls. Tiles are
+    // keyed by their row in the whole maze, so when an endless maze moves on by
+    // whole tiles the cached ones stay good (scroll()).
+    // Everything here but paint() runs on the game loop thread, which draws and
+    // patches tiles in prepare() as each frame is published and hands the slot
+    // table over in the frame's RenderSnapshot. paint() copies what its snapshot
+    // lists and takes no lock: a slot image a published snapshot still shows is
+    // never drawn into again - the slot moves on to one of its spare images
+    // instead, so the EDT and the loop never wait on each other.
+    private class MazeLayer {
+        private static final int TILE_CELLS = 16;
+        private static final int TILE_SIZE = TILE_CELLS * CELL_SIZE;
+        // The reader's snapshot and the one in between show at most two images of
+        // a slot, which leaves the third free to draw into
+        private static final int IMAGES_PER_SLOT = 3;
+        
+        private MazeGrid cells; // the maze the tiles are drawn from
+        private BufferedImage[] slots = new BufferedImage[0]; // each slot's current image
+        private BufferedImage[][] slotImages = new BufferedImage[0][]; // and the ones it can move on to
+        private long[] slotTile = new long[0]; // tile held by each slot, -1 if none
+        private long topTileRow; // maze tile row of the board's first tile row
+        private long rowOffset; // maze row of the board's first row, as of the last rebuild or scroll
+        private int slotRows, slotCols;
+        private int[] dirtyCells = new int[0]; // slot * TILE_CELLS^2 + cell within the tile
+        private boolean[] isDirty = new boolean[0];
+        private int dirtyCount = 0;
+        private int cellsDrawnForFrame = 0;
+        int cellsDrawn, tilesPainted; // for the last paint(), for its JFR event; painting thread only
+        
+        // Called from setupLevel on the game loop thread; tiles are redrawn lazily
+        void rebuild(MazeGrid maze, long rowOffset) {
+            cells = maze;
+            this.rowOffset = rowOffset;
+            topTileRow = rowOffset / TILE_CELLS;
+            // A view can straddle one more tile than it spans, but never more tiles than the board has
+            int tileRows = (maze.getRows() + TILE_CELLS - 1) / TILE_CELLS;
+            int tileCols = (maze.getCols() + TILE_CELLS - 1) / TILE_CELLS;
+            slotRows = Math.min(tileRows, (viewHeight + TILE_SIZE - 1) / TILE_SIZE + 1);
+            slotCols = Math.min(tileCols, (viewWidth + TILE_SIZE - 1) / TILE_SIZE + 1);
+            int slotCount = slotRows * slotCols;
+            if (slots.length != slotCount) {
+                // Snapshots still showing the old images keep them; they're just never drawn into again
+                slots = new BufferedImage[slotCount];
+                slotImages = new BufferedImage[slotCount][IMAGES_PER_SLOT];
+                slotTile = new long[slotCount];
+                dirtyCells = new int[slotCount * TILE_CELLS * TILE_CELLS];
+                isDirty = new boolean[dirtyCells.length];
+            }
+            Arrays.fill(slotTile, -1);
+            for (int i = 0; i < dirtyCount; i++) {
+                isDirty[dirtyCells[i]] = false;
+            }
+            dirtyCount = 0;
+        }
+        
+        // The board moved up by rows, as an endless maze dropped its top chunk
+        void scroll(int rows) {
+            if (rows % TILE_CELLS != 0) {
+                rebuild(cells, rowOffset + rows);
+                return;
+            }
+            rowOffset += rows;
+            topTileRow += rows / TILE_CELLS;
+        }
+        
+        // Consecutive tiles land in different slots, so the tiles of one view never collide
+        private static int slotOf(long top, int tileRow, int tileCol, int slotRows, int slotCols) {
+            return (int) ((top + tileRow) % slotRows) * slotCols + tileCol % slotCols;
+        }
+        
+        private static long tileId(long top, int tileRow, int tileCol, int stride) {
+            return (top + tileRow) * stride + tileCol;
+        }
+        
+        // Marks a cell whose contents changed; it's redrawn by the next prepare() if its
+        // tile is cached. r counts from maze row mazeRowOffset: a step can shift an
+        // endless maze and then eat an orb before the board hears of the scroll
+        void invalidate(int r, int c, long mazeRowOffset) {
+            r += (int) (mazeRowOffset - rowOffset);
+            int tileRow = r / TILE_CELLS;
+            int tileCol = c / TILE_CELLS;
+            int slot = slotOf(topTileRow, tileRow, tileCol, slotRows, slotCols);
+            if (slotTile[slot] != tileId(topTileRow, tileRow, tileCol, tileStride())) return;
+            
+            int index = (slot * TILE_CELLS + r % TILE_CELLS) * TILE_CELLS + c % TILE_CELLS;
+            if (!isDirty[index]) {
+                isDirty[index] = true;
+                dirtyCells[dirtyCount++] = index;
+            }
+        }
+        
+        private int tileStride() {
+            return (cells.getCols() + TILE_CELLS - 1) / TILE_CELLS;
+        }
+        
+        // Called as a frame is published on the game loop thread: redraws changed
+        // cells, draws the tiles under the given board area that aren't cached, and
+        // copies the slot table into the frame
+        void prepare(RenderSnapshot frame, int x, int y, int width, int height) {
+            cellsDrawnForFrame = 0;
+            if (dirtyCount > 0) {
+                for (int i = 0; i < dirtyCount; i++) {
+                    int index = dirtyCells[i];
+                    isDirty[index] = false;
+                    int slot = index / (TILE_CELLS * TILE_CELLS);
+                    long tile = slotTile[slot];
+                    if (tile >= topTileRow * tileStride()) {
+                        int cell = index % (TILE_CELLS * TILE_CELLS);
+                        patchCell(slot, tile, cell / TILE_CELLS, cell % TILE_CELLS);
+                    }
+                }
+                dirtyCount = 0;
+            }
+            
+            int stride = tileStride();
+            int lastTileRow = Math.min(y + height - 1, cells.getRows() * CELL_SIZE - 1) / TILE_SIZE;
+            int lastTileCol = Math.min(x + width - 1, cells.getCols() * CELL_SIZE - 1) / TILE_SIZE;
+            for (int tileRow = Math.max(0, y / TILE_SIZE); tileRow <= lastTileRow; tileRow++) {
+                for (int tileCol = Math.max(0, x / TILE_SIZE); tileCol <= lastTileCol; tileCol++) {
+                    int slot = slotOf(topTileRow, tileRow, tileCol, slotRows, slotCols);
+                    long tile = tileId(topTileRow, tileRow, tileCol, stride);
+                    if (slotTile[slot] != tile) {
+                        drawTile(slot, tileRow, tileCol);
+                        slotTile[slot] = tile;
+                    }
+                }
+            }
+            
+            frame.topTileRow = topTileRow;
+            frame.tileSlotRows = slotRows;
+            frame.tileSlotCols = slotCols;
+            frame.tileStride = stride;
+            frame.boardWidth = cells.getCols() * CELL_SIZE;
+            frame.boardHeight = cells.getRows() * CELL_SIZE;
+            frame.setTiles(slots, slotTile, slots.length);
+            frame.cellsDrawn = cellsDrawnForFrame;
+        }
+        
+        // Called from paintComponent on the EDT, with g translated to board coordinates;
+        // copies the tiles under the given board area that the frame lists. Reads
+        // nothing but the snapshot, and the images in it are no longer drawn into
+        void paint(Graphics g, RenderSnapshot frame, int x, int y, int width, int height) {
+            cellsDrawn = frame.cellsDrawn;
+            tilesPainted = 0;
+            if (frame.tileCount == 0) return;
+            
+            int lastTileRow = Math.min(y + height, frame.boardHeight) - 1;
+            int lastTileCol = Math.min(x + width, frame.boardWidth) - 1;
+            for (int tileRow = Math.max(0, y / TILE_SIZE); tileRow <= lastTileRow / TILE_SIZE; tileRow++) {
+                for (int tileCol = Math.max(0, x / TILE_SIZE); tileCol <= lastTileCol / TILE_SIZE; tileCol++) {
+                    int slot = slotOf(frame.topTileRow, tileRow, tileCol, frame.tileSlotRows, frame.tileSlotCols);
+                    if (frame.tileIds[slot] == tileId(frame.topTileRow, tileRow, tileCol, frame.tileStride)) {
+                        g.drawImage(frame.tiles[slot], tileCol * TILE_SIZE, tileRow * TILE_SIZE, null);
+                        tilesPainted++;
+                    }
+                }
+            }
+        }
+        
+        // The slot's image to draw into. If a published snapshot still shows it, the
+        // slot moves on to a spare nothing shows, copied over first when the
+        // drawing only patches what's there
+        private BufferedImage drawable(int slot, boolean keep) {
+            BufferedImage current = slots[slot];
+            if (current != null && !frames.tileShown(current)) return current;
+            
+            BufferedImage[] images = slotImages[slot];
+            BufferedImage next = null;
+            for (int i = 0; next == null; i++) {
+                if (images[i] == null) {
+                    images[i] = createCompatibleImage(TILE_SIZE, TILE_SIZE, Transparency.OPAQUE);
+                    next = images[i];
+                } else if (images[i] != current && !frames.tileShown(images[i])) {
+                    next = images[i];
+                }
+            }
+            if (keep && current != null) {
+                Graphics2D g = next.createGraphics();
+                g.drawImage(current, 0, 0, null);
+                g.dispose();
+            }
+            slots[slot] = next;
+            return next;
+        }
+        
+        private void drawTile(int slot, int tileRow, int tileCol) {
+            Graphics2D g = drawable(slot, false).createGraphics();
+            try {
+                g.setColor(BACKGROUND);
+                g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+                g.translate(-tileCol * TILE_SIZE, -tileRow * TILE_SIZE);
+                // Wall outlines spill one pixel into the next cell, so the row and
+                // column before the tile are drawn too
+                int firstRow = tileRow * TILE_CELLS;
+                int firstCol = tileCol * TILE_CELLS;
+                int lastRow = Math.min(cells.getRows(), firstRow + TILE_CELLS) - 1;
+                int lastCol = Math.min(cells.getCols(), firstCol + TILE_CELLS) - 1;
+                for (int r = Math.max(0, firstRow - 1); r <= lastRow; r++) {
+                    for (int c = Math.max(0, firstCol - 1); c <= lastCol; c++) {
+                        drawCell(g, cells, r, c);
+                        cellsDrawnForFrame++;
+                    }
+                }
+            } finally {
+                g.dispose();
+            }
+        }
+        
+        private void patchCell(int slot, long tile, int tileRowOffset, int tileColOffset) {
+            int stride = tileStride();
+            int tileRow = (int) (tile / stride - topTileRow);
+            int tileCol = (int) (tile % stride);
+            int r = tileRow * TILE_CELLS + tileRowOffset;
+            int c = tileCol * TILE_CELLS + tileColOffset;
+            Graphics2D g = drawable(slot, true).createGraphics();
+            try {
+                g.translate(-tileCol * TILE_SIZE, -tileRow * TILE_SIZE);
+                int x = c * CELL_SIZE;
+                int y = r * CELL_SIZE;
+                g.setClip(x, y, CELL_SIZE, CELL_SIZE);
+                g.setColor(BACKGROUND);
+                g.fillRect(x, y, CELL_SIZE, CELL_SIZE);
+                // Wall outlines spill one pixel into the next cell, so the neighbours above
+                // and to the left are redrawn too, in the same order as a full tile
+                for (int nr = Math.max(0, r - 1); nr <= r; nr++) {
+                    for (int nc = Math.max(0, c - 1); nc <= c; nc++) {
+                        drawCell(g, cells, nr, nc);
+                        cellsDrawnForFrame++;
+                    }
+                }
+            } finally {
+                g.dispose();
+            }
+        }
+        
+        private void drawCell(Graphics g, MazeGrid maze, int r, int c) {
+            int x = c * CELL_SIZE;
+            int y = r * CELL_SIZE;
+            
+            switch (maze.get(r, c)) {
+                case MazeGrid.WALL -> {
+                    // Wall
+                    g.setColor(WALL_FILL);
+                    g.fillRect(x, y, CELL_SIZE, CELL_SIZE);
+                    g.setColor(WALL_EDGE);
+                    g.drawRect(x, y, CELL_SIZE, CELL_SIZE);
+                }
+                case MazeGrid.ORB -> // Normal orb
+                    g.drawImage(orbSprite, x, y, null);
+                case MazeGrid.POWER_ORB -> // Power orb
+                    g.drawImage(powerOrbSprite, x, y, null);
+                case MazeGrid.EXIT -> // Exit
+                    drawExit(g, x, y, false);
+                default -> {
+                }
+            }
+        }
+        
+        void drawExit(Graphics g, int x, int y, boolean isReal) {
+            g.setColor(isReal ? Color.GREEN : Color.CYAN);
+            g.fillRect(x + 2, y + 2, CELL_SIZE - 4, CELL_SIZE - 4);
+            g.setColor(isReal ? Color.DARK_GRAY : Color.BLUE);
+            g.drawRect(x + 3, y + 3, CELL_SIZE - 6, CELL_SIZE - 6);
+        }
+    }
+    
+    private BufferedImage createSprite() {
+        return createCompatibleImage(CELL_SIZE, CELL_SIZE, Transparency.TRANSLUCENT);
+    }
+    
+    private BufferedImage createOrbSprite(Color color) {
+        BufferedImage sprite = createSprite();
+        Graphics2D g = sprite.createGraphics();
+        int x = CELL_SIZE/2;
+        int y = CELL_SIZE/2;
+        
+        // Glow effect
+        g.setColor(color);
+        g.fillOval(x - 8, y - 8, 16, 16);
+        
+        // Core
+        g.setColor(color.brighter());
+        g.fillOval(x - 4, y - 4, 8, 8);
+        
+        // Inner highlight
+        g.setColor(Color.WHITE);
+        g.fillOval(x - 2, y - 2, 3, 3);
+        g.dispose();
+        return sprite;
+    }
+    
+    private BufferedImage createHintSprite() {
+        BufferedImage sprite = createSprite();
+        Graphics2D g = sprite.createGraphics();
+        g.setColor(HINT_DOT);
+        g.fillOval(CELL_SIZE / 2 - 4, CELL_SIZE / 2 - 4, 8, 8);
+        g.dispose();
+        return sprite;
+    }
+    
+    private BufferedImage createEnemySprite(Color color, boolean withEyes) {
+        BufferedImage sprite = createSprite();
+        Graphics2D g = sprite.createGraphics();
+        g.setColor(color);
+        g.fillOval(3, 3, CELL_SIZE - 6, CELL_SIZE - 6);
+        
+        // Draw enemy eyes
+        if (withEyes) {
+            g.setColor(Color.BLACK);
+            g.fillOval(7, 7, 3, 3);
+            g.fillOval(14, 7, 3, 3);
+        }
+        g.dispose();
+        return sprite;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        paintFrame(g, getWidth(), getHeight());
+    }
+    
+    // One frame onto a width x height surface, timed - a paint on the EDT, or a
+    // whole frame on the game loop thread for CanvasView
+    void paintFrame(Graphics g, int width, int height) {
+        GameEvents.FrameRendered event = new GameEvents.FrameRendered();
+        event.begin();
+        long start = System.nanoTime();
+        renderTo(g, width, height);
+        timings.paint.record(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cellsDrawn = mazeLayer.cellsDrawn;
+            event.tilesPainted = mazeLayer.tilesPainted;
+            event.enemiesPainted = enemiesPainted;
+            event.commit();
+        }
+    }
+    
+    // Everything a frame draws; allocation free once warmed up and as long as the
+    // view stays on tiles that are already drawn
+    void renderTo(Graphics g, int width, int height) {
+        RenderSnapshot frame = frames.latest();
+        
+        g.setColor(BACKGROUND);
+        if (width > viewWidth) {
+            g.fillRect(viewWidth, 0, width - viewWidth, height);
+        }
+        if (height > viewHeight) {
+            g.fillRect(0, viewHeight, viewWidth, height - viewHeight);
+        }
+        
+        // Board contents are drawn in board coordinates, shifted by the camera
+        int viewX = frame.cameraX;
+        int viewY = frame.cameraY;
+        g.translate(-viewX, -viewY);
+        
+        // Static board - walls, orbs and exits
+        mazeLayer.paint(g, frame, viewX, viewY, viewWidth, viewHeight);
+        
+        // The real exit lights up while the player stands on it
+        if (frame.exitLit) {
+            mazeLayer.drawExit(g, frame.exitCol * CELL_SIZE, frame.exitRow * CELL_SIZE, true);
+        }
+        
+        // Path hint, under the sprites
+        for (int i = 0; i < frame.hintLength; i++) {
+            int x = frame.hintPath[i] % frame.hintCols * CELL_SIZE;
+            int y = frame.hintPath[i] / frame.hintCols * CELL_SIZE;
+            if (x + CELL_SIZE > viewX && x < viewX + viewWidth && y + CELL_SIZE > viewY && y < viewY + viewHeight) {
+                g.drawImage(hintSprite, x, y, null);
+            }
+        }
+        
+        // Draw player as Pac-Man style circle, interpolated between simulation steps
+        g.drawImage(pacmanSprites[frame.facing], frame.playerX, frame.playerY, null);
+        
+        // Draw enemies
+        enemiesPainted = 0;
+        for (int i = 0; i < frame.enemyCount; i++) {
+            int x = frame.enemyX[i];
+            int y = frame.enemyY[i];
+            if (x + CELL_SIZE <= viewX || x >= viewX + viewWidth || y + CELL_SIZE <= viewY || y >= viewY + viewHeight) {
+                continue;
+            }
+            BufferedImage enemyImage = switch (frame.enemySprite[i]) {
+                case RenderSnapshot.ENEMY_FROZEN -> frozenEnemySprite;
+                case RenderSnapshot.ENEMY_NEAR -> enemyNearSprite;
+                default -> enemySprite;
+            };
+            g.drawImage(enemyImage, x, y, null);
+            enemiesPainted++;
+        }
+        g.translate(viewX, viewY);
+        
+        // Draw danger overlay if an enemy is near
+        if (frame.enemyNear) {
+            g.drawImage(dangerOverlay, 0, 0, null);
+        }
+        
+        // Draw combo indicator
+        int combo = frame.combo;
+        if (combo > 1) {
+            g.setColor(Color.YELLOW);
+            g.setFont(COMBO_FONT);
+            g.drawString(COMBO_TEXT.get(combo), 5, 20);
+        }
+        
+        // Frame timings, over a plain backdrop so they stay readable
+        String[] lines = frame.timings;
+        if (lines != null) {
+            int top = viewHeight - lines.length * TIMINGS_LINE_HEIGHT - 4;
+            g.setColor(Color.BLACK);
+            g.fillRect(0, top, viewWidth, viewHeight - top);
+            g.setColor(Color.WHITE);
+            g.setFont(TIMINGS_FONT);
+            for (int i = 0; i < lines.length; i++) {
+                g.drawString(lines[i], 4, top + (i + 1) * TIMINGS_LINE_HEIGHT);
+            }
+        }
+        
+        // Debug - outline the area this paint covered
+        if (showRepaintRegions && g.getClip() != null) {
+            Rectangle clip = g.getClipBounds(clipBounds);
+            g.setColor(Color.MAGENTA);
+            g.drawRect(clip.x, clip.y, clip.width - 1, clip.height - 1);
+        }
+    }
+    
+    private void drawPacman(Graphics g, double x, double y, int direction) {
+        // Draw Pac-Man body
+        g.setColor(Color.CYAN);
+        
+        // Calculate mouth angle based on direction
+        int startAngle = 0;
+        int arcAngle = 45;
+        
+        switch (direction) {
+            case 0: // UP
+                startAngle = 90;
+                break;
+            case 1: // DOWN
+                startAngle = 270;
+                break;
+            case 2: // LEFT
+                startAngle = 180;
+                break;
+            case 3: // RIGHT
+                startAngle = 0;
+                break;
+            default: // Default to right
+                startAngle = 0;
+                break;
+        }
+        
+        // Draw Pac-Man as a pie slice
+        g.fillArc((int)(x + 3), (int)(y + 3), CELL_SIZE - 6, CELL_SIZE - 6, 
+                 startAngle, arcAngle * 2);
+        
+        // Draw Pac-Man glow effect
+        g.setColor(PACMAN_GLOW);
+        g.fillOval((int)(x + 1), (int)(y + 1), CELL_SIZE - 2, CELL_SIZE - 2);
+    }
+}
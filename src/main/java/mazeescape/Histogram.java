@@ -0,0 +1,93 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// Counts of non-negative whole-number samples, one bin per value up to the largest
+// seen. Histograms filled on different threads are combined with merge(), which
+// gives the same counts in whatever order they're merged.
+final class Histogram {
+    
+    private long[] counts = new long[16];
+    private long total = 0;
+    private long sum = 0;
+    private int min = Integer.MAX_VALUE;
+    private int max = 0;
+    
+    void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Histogram values can't be negative: " + value);
+        }
+        if (value >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(value + 1, counts.length * 2));
+        }
+        counts[value]++;
+        total++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+    
+    Histogram merge(Histogram other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int value = 0; value <= other.max; value++) {
+            counts[value] += other.counts[value];
+        }
+        total += other.total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+    
+    double mean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+    
+    int max() {
+        return max;
+    }
+    
+    // Smallest value at least the given share (0 to 1) of samples are no bigger than
+    int percentile(double share) {
+        long rank = Math.max(1, (long) Math.ceil(share * total));
+        long seen = 0;
+        for (int value = 0; value <= max; value++) {
+            seen += counts[value];
+            if (seen >= rank) return value;
+        }
+        return max;
+    }
+    
+    // Samples in [from, to)
+    long countBetween(int from, int to) {
+        long count = 0;
+        for (int value = Math.max(0, from); value < Math.min(to, max + 1); value++) {
+            count += counts[value];
+        }
+        return count;
+    }
+    
+    // One line of mean and percentiles, then the spread from the smallest sample to
+    // the largest over up to bins equal-width ranges, as bars of up to width characters
+    String format(String name, int bins, int width) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("  %-26s mean %8.1f   p50 %6d   p90 %6d   p99 %6d   max %6d%n", name, mean(),
+                percentile(0.5), percentile(0.9), percentile(0.99), max));
+        if (total == 0) return out.toString();
+        
+        int binWidth = Math.max(1, (max - min + bins) / bins);
+        long largest = 0;
+        for (int from = min; from <= max; from += binWidth) {
+            largest = Math.max(largest, countBetween(from, from + binWidth));
+        }
+        for (int from = min; from <= max; from += binWidth) {
+            long count = countBetween(from, from + binWidth);
+            int bar = (int) Math.round((double) count * width / largest);
+            out.append(String.format("    %6d - %-6d %6.2f%% %s%n", from, from + binWidth - 1, 100.0 * count / total,
+                    "#".repeat(bar)));
+        }
+        return out.toString();
+    }
+}
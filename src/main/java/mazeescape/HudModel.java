@@ -0,0 +1,162 @@
+package mazeescape;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// View-model for the HUD. The simulation writes every value each tick, but only
+// changes are recorded, and publish() hands them to the EDT in a single
+// invokeLater per frame. Labels whose value didn't change are never touched, so
+// Swing has nothing to re-layout or repaint for them
+final class HudModel implements Runnable {
+    
+    // Where the values end up; each is only passed on when it changed since the last time
+    interface Labels {
+        void showScore(int score);
+        
+        void showLevel(int level);
+        
+        void showSeconds(int seconds);
+        
+        void showOrbs(int orbs);
+        
+        void showLives(int lives);
+        
+        void showCombo(int combo);
+        
+        void showTimePercent(int timePercent);
+        
+        // 0 with more than half the time left, 1 with more than a quarter, 2 below that
+        void showTimeColor(int timeColor);
+        
+        void showMessage(String message);
+    }
+    
+    private static final int UNSET = Integer.MIN_VALUE;
+    
+    private final Labels labels;
+    private final Executor edt;
+    private final LatencyHistogram applyTimes;
+    
+    // Latest values, written on the game loop thread
+    private int score, level, seconds, orbs, lives, combo, timePercent, timeColor;
+    private String message = "";
+    private boolean changed = false;
+    private final AtomicBoolean publishPending = new AtomicBoolean();
+    
+    // Values currently on screen, only touched on the EDT
+    private int shownScore = UNSET, shownLevel = UNSET, shownSeconds = UNSET, shownOrbs = UNSET;
+    private int shownLives = UNSET, shownCombo = UNSET, shownTimePercent = UNSET, shownTimeColor = UNSET;
+    private String shownMessage = "";
+    
+    // edt runs the batch, SwingUtilities::invokeLater in the window
+    HudModel(Labels labels, Executor edt, LatencyHistogram applyTimes) {
+        this.labels = labels;
+        this.edt = edt;
+        this.applyTimes = applyTimes;
+    }
+    
+    // The game as it left the last step, once per tick on the game loop thread
+    void update(MazeSimulation simulation) {
+        double timer = simulation.getTimeLeft();
+        double percent = Math.max(0, Math.min(1, timer / simulation.getLevelTime()));
+        update(simulation.getScore(), simulation.getLevel(), (int)timer, simulation.getOrbsLeft(),
+                simulation.getLives(), simulation.getCombo(), percent);
+        setMessage(simulation.getMessage());
+    }
+    
+    synchronized void update(int score, int level, int seconds, int orbs, int lives, int combo, double percent) {
+        int timePercent = (int)(percent * 100);
+        // Change time bar color based on time left
+        int timeColor = percent > 0.5 ? 0 : percent > 0.25 ? 1 : 2;
+        
+        if (score != this.score || level != this.level || seconds != this.seconds || orbs != this.orbs
+                || lives != this.lives || combo != this.combo || timePercent != this.timePercent
+                || timeColor != this.timeColor) {
+            this.score = score;
+            this.level = level;
+            this.seconds = seconds;
+            this.orbs = orbs;
+            this.lives = lives;
+            this.combo = combo;
+            this.timePercent = timePercent;
+            this.timeColor = timeColor;
+            changed = true;
+        }
+    }
+    
+    synchronized void setMessage(String message) {
+        if (!message.equals(this.message)) {
+            this.message = message;
+            changed = true;
+        }
+    }
+    
+    // Called once per frame; at most one batch is ever queued on the EDT
+    void publish() {
+        synchronized (this) {
+            if (!changed) return;
+        }
+        if (publishPending.compareAndSet(false, true)) {
+            edt.execute(this);
+        }
+    }
+    
+    // Applies the latest values on the EDT
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        publishPending.set(false);
+        int score, level, seconds, orbs, lives, combo, timePercent, timeColor;
+        String message;
+        synchronized (this) {
+            score = this.score;
+            level = this.level;
+            seconds = this.seconds;
+            orbs = this.orbs;
+            lives = this.lives;
+            combo = this.combo;
+            timePercent = this.timePercent;
+            timeColor = this.timeColor;
+            message = this.message;
+            changed = false;
+        }
+        
+        if (score != shownScore) {
+            labels.showScore(score);
+            shownScore = score;
+        }
+        if (level != shownLevel) {
+            labels.showLevel(level);
+            shownLevel = level;
+        }
+        if (seconds != shownSeconds) {
+            labels.showSeconds(seconds);
+            shownSeconds = seconds;
+        }
+        if (orbs != shownOrbs) {
+            labels.showOrbs(orbs);
+            shownOrbs = orbs;
+        }
+        if (lives != shownLives) {
+            labels.showLives(lives);
+            shownLives = lives;
+        }
+        if (combo != shownCombo) {
+            labels.showCombo(combo);
+            shownCombo = combo;
+        }
+        if (timePercent != shownTimePercent) {
+            labels.showTimePercent(timePercent);
+            shownTimePercent = timePercent;
+        }
+        if (timeColor != shownTimeColor) {
+            labels.showTimeColor(timeColor);
+            shownTimeColor = timeColor;
+        }
+        if (!message.equals(shownMessage)) {
+            labels.showMessage(message);
+            shownMessage = message;
+        }
+        applyTimes.record(System.nanoTime() - start);
+    }
+}
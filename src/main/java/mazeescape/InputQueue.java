@@ -0,0 +1,106 @@
+package mazeescape;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Input handed from the EDT to the game loop without locks. What's held is one
+// atomic bitmask, with a bit per direction for every source, so releasing W
+// doesn't cancel a held up arrow. On top of that, every press and release goes
+// into a ring buffer with the time it happened, and the loop drains it once a
+// step: a tap that's down and up again between two steps still counts as held
+// for a step, and the press time gives the latency from key to movement.
+//
+// The ring has a single producer (the EDT, where all key and mouse listeners run)
+// and a single consumer (the game loop), so two ordered counters are enough. If it
+// ever fills up, further events are dropped; the held mask is still right then,
+// only a tap in between could be missed. Commands can be sent from any thread.
+final class InputQueue {
+    
+    // Where a direction can come from
+    static final int ARROW_KEYS = 0;
+    static final int WASD_KEYS = 1;
+    static final int BUTTONS = 2;
+    
+    private static final int DIRECTIONS = MazeSimulation.UP | MazeSimulation.DOWN | MazeSimulation.LEFT
+            | MazeSimulation.RIGHT;
+    private static final int SOURCE_BITS = 4; // one per direction
+    private static final int CAPACITY = 256; // a power of two
+    private static final int RELEASED = 1 << 31;
+    
+    private final AtomicInteger held = new AtomicInteger(); // direction << (source * SOURCE_BITS)
+    private final AtomicInteger commands = new AtomicInteger();
+    private final int[] events = new int[CAPACITY]; // direction bit, | RELEASED for a release
+    private final long[] eventTimes = new long[CAPACITY];
+    private final AtomicLong written = new AtomicLong(); // events put in so far
+    private final AtomicLong read = new AtomicLong(); // events taken out so far
+    private long pressedAt = 0;
+    
+    // EDT: a direction key or button went down. Auto-repeat presses of a key that's
+    // already down change nothing and aren't queued
+    void press(int source, int direction) {
+        int bits = direction << (source * SOURCE_BITS);
+        int mask;
+        do {
+            mask = held.get();
+        } while (!held.compareAndSet(mask, mask | bits));
+        if ((mask & bits) == 0) {
+            offer(direction);
+        }
+    }
+    
+    // EDT: a direction key or button came up
+    void release(int source, int direction) {
+        int bits = direction << (source * SOURCE_BITS);
+        int mask;
+        do {
+            mask = held.get();
+        } while (!held.compareAndSet(mask, mask & ~bits));
+        if ((mask & bits) != 0) {
+            offer(direction | RELEASED);
+        }
+    }
+    
+    // Safe from any thread; the simulation picks it up on its next step
+    void sendCommand(int command) {
+        commands.accumulateAndGet(command, (pending, sent) -> pending | sent);
+    }
+    
+    private void offer(int event) {
+        long index = written.get();
+        if (index - read.getAcquire() == CAPACITY) return;
+        int slot = (int) index & (CAPACITY - 1);
+        events[slot] = event;
+        eventTimes[slot] = System.nanoTime();
+        written.setRelease(index + 1);
+    }
+    
+    // Game loop, once per step: the input word for the step - every direction held
+    // now or pressed since the last step, and the commands sent since. Doesn't allocate
+    int poll() {
+        int directions = 0;
+        pressedAt = 0;
+        long end = written.getAcquire();
+        for (long index = read.get(); index < end; index++) {
+            int slot = (int) index & (CAPACITY - 1);
+            int event = events[slot];
+            if ((event & RELEASED) == 0) {
+                directions |= event;
+                if (pressedAt == 0) {
+                    pressedAt = eventTimes[slot];
+                }
+            }
+        }
+        read.setRelease(end);
+        
+        int mask = held.get();
+        for (int source = ARROW_KEYS; source <= BUTTONS; source++) {
+            directions |= (mask >>> (source * SOURCE_BITS)) & DIRECTIONS;
+        }
+        return directions | commands.getAndSet(0);
+    }
+    
+    // System.nanoTime() of the first press taken in by the last poll(), 0 if none
+    long pressedAt() {
+        return pressedAt;
+    }
+}
@@ -0,0 +1,93 @@
+package mazeescape;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// Durations in nanoseconds, counted in buckets about 3% wide (32 per power of two),
+// so recording one is a few shifts and an increment with no allocation, from a
+// nanosecond up to about 18 minutes. One thread records; another may read at the
+// same time and see a count or two out of date, which is fine for a live display.
+final class LatencyHistogram {
+    
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_BITS = 40; // anything from 2^40 ns up counts as the largest bucket
+    
+    private final long[] counts = new long[(MAX_BITS - SUB_BITS + 1) * SUB_COUNT];
+    private long total = 0;
+    private long sum = 0;
+    private long max = 0;
+    
+    void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, (1L << MAX_BITS) - 1));
+        counts[bucketOf(value)]++;
+        total++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+    
+    void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        max = 0;
+    }
+    
+    long count() {
+        return total;
+    }
+    
+    long max() {
+        return max;
+    }
+    
+    double mean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+    
+    // Upper end of the bucket holding the sample at the given share (0 to 1) of
+    // samples; never more than the largest one recorded
+    long percentile(double share) {
+        long rank = Math.max(1, (long) Math.ceil(share * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) return Math.min(max, highestIn(bucket));
+        }
+        return max;
+    }
+    
+    // One line: count, then p50, p99, p99.9 and max in milliseconds
+    String format(String name) {
+        return String.format("%-8s %8d %8.2f %8.2f %8.2f %8.2f", name, total, percentile(0.5) / 1e6,
+                percentile(0.99) / 1e6, percentile(0.999) / 1e6, max / 1e6);
+    }
+    
+    // The summary line, then every bucket that has samples as its range in
+    // nanoseconds and count, so runs can be compared bucket for bucket later
+    void writeTo(PrintWriter out, String name) {
+        out.printf("# %s: count %d, mean %.0f ns, p50 %d, p90 %d, p99 %d, p99.9 %d, max %d ns%n", name, total,
+                mean(), percentile(0.5), percentile(0.9), percentile(0.99), percentile(0.999), max);
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (counts[bucket] > 0) {
+                long from = bucket == 0 ? 0 : highestIn(bucket - 1) + 1;
+                out.printf("%s %d %d %d%n", name, from, highestIn(bucket), counts[bucket]);
+            }
+        }
+    }
+    
+    // Values below SUB_COUNT get a bucket each; above, the top SUB_BITS + 1 bits
+    // of the value pick one
+    private static int bucketOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+    }
+    
+    private static long highestIn(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int shift = bucket / SUB_COUNT - 1;
+        long mantissa = bucket % SUB_COUNT + SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,263 @@
+package mazeescape;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+// Everything about a level that's settled before it starts: the board with its
+// obstacles, exits and orbs, which exit is the real one, and where the player and
+// the enemies start. It only depends on its arguments, so it can be laid out on
+// any thread (see LevelPool); once handed to the game it belongs to the game
+// thread. A layout holds nothing but its board and a few cells - the working
+// space it's laid out with is a Scratch, so layouts waiting in the pool don't
+// keep board-sized arrays besides the board.
+final class LevelLayout {
+    
+    // The eight cells around a cell, clockwise from the one above; even entries
+    // are the four sides
+    private static final int[] RING_DR = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] RING_DC = {0, 1, 1, 1, 0, -1, -1, -1};
+    
+    final int level;
+    final MazeGrid maze;
+    final int playerRow;
+    final int playerCol;
+    final int[] enemyCells; // start cell of each enemy, the top-left one first
+    final int[] realExit;
+    final int orbs;
+    
+    // Working space for laying out levels of one board size. A thread that lays
+    // out many (MazeAnalysis) keeps one; a layout made without one gets its own,
+    // dropped once the layout is built
+    static final class Scratch {
+        final FlowField flowField; // path distances from the player's start, to place the enemies by
+        final int[] orbCandidates;
+        
+        Scratch(int rows, int cols) {
+            flowField = new FlowField(rows, cols, MazeSimulation.CHASE_RADIUS);
+            orbCandidates = new int[rows * cols];
+        }
+    }
+    
+    LevelLayout(int level, int rows, int cols, MazeGenerator generator, RandomGenerator rand) {
+        this(level, rows, cols, generator, rand, new Scratch(rows, cols));
+    }
+    
+    LevelLayout(int level, int rows, int cols, MazeGenerator generator, RandomGenerator rand, Scratch scratch) {
+        GameEvents.LevelGenerated event = new GameEvents.LevelGenerated();
+        event.begin();
+        this.level = level;
+        this.maze = generateMaze(level, rows, cols, generator, rand, scratch.orbCandidates);
+        
+        // Find player start position (center)
+        int playerStartRow = rows / 2;
+        int playerStartCol = cols / 2;
+        while (maze.get(playerStartRow, playerStartCol) != MazeGrid.EMPTY) {
+            playerStartRow++;
+            playerStartCol++;
+            if (playerStartRow >= rows) {
+                playerStartRow = rows / 2 - 1;
+            }
+            if (playerStartCol >= cols) {
+                playerStartCol = cols / 2 - 1;
+            }
+        }
+        this.playerRow = playerStartRow;
+        this.playerCol = playerStartCol;
+        
+        // Enemies are placed by path distance from the player
+        scratch.flowField.update(maze, playerRow, playerCol);
+        this.enemyCells = spawnEnemies(MazeSimulation.enemyCount(level), scratch.flowField, rand);
+        
+        this.orbs = maze.count(MazeGrid.ORB) + maze.count(MazeGrid.POWER_ORB);
+        this.realExit = pickRealExit(rand);
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.level = level;
+            event.rows = rows;
+            event.cols = cols;
+            event.orbs = orbs;
+            event.enemies = enemyCells.length;
+            event.commit();
+        }
+    }
+    
+    static MazeGrid generateMaze(int level, int rows, int cols, MazeGenerator generator, RandomGenerator rand) {
+        return generateMaze(level, rows, cols, generator, rand, new int[rows * cols]);
+    }
+    
+    // orbCandidates is scratch space for rows * cols cells
+    static MazeGrid generateMaze(int level, int rows, int cols, MazeGenerator generator, RandomGenerator rand,
+            int[] orbCandidates) {
+        MazeGrid maze = generator.generate(rows, cols, rand);
+        
+        // Ensure spawn areas are clear
+        int centerR = rows / 2;
+        int centerC = cols / 2;
+        for (int r = centerR - 2; r <= centerR + 2; r++) {
+            for (int c = centerC - 2; c <= centerC + 2; c++) {
+                if (maze.inBounds(r, c)) {
+                    maze.set(r, c, MazeGrid.EMPTY);
+                }
+            }
+        }
+        
+        // Add level-specific obstacles, only where they can't cut the board in two
+        int obstaclesToAdd = level * 2;
+        for (int i = 0; i < obstaclesToAdd; i++) {
+            int r = 2 + rand.nextInt(rows - 4);
+            int c = 2 + rand.nextInt(cols - 4);
+            if (rand.nextDouble() > 0.6 && !isNearSpawn(rows, cols, r, c) && canWallIn(maze, r, c)) {
+                maze.set(r, c, MazeGrid.WALL);
+            }
+        }
+        
+        // Place exits, before the orbs so they can't crowd them out
+        List<int[]> exitCandidates = new ArrayList<>();
+        for (int c = 2; c < cols - 2; c += 3) {
+            if (maze.get(1, c) == MazeGrid.EMPTY) exitCandidates.add(new int[]{1, c});
+            if (maze.get(rows - 2, c) == MazeGrid.EMPTY) exitCandidates.add(new int[]{rows - 2, c});
+        }
+        for (int r = 2; r < rows - 2; r += 3) {
+            if (maze.get(r, 1) == MazeGrid.EMPTY) exitCandidates.add(new int[]{r, 1});
+            if (maze.get(r, cols - 2) == MazeGrid.EMPTY) exitCandidates.add(new int[]{r, cols - 2});
+        }
+        if (exitCandidates.isEmpty()) {
+            // None of the usual spots is open - take any open cell next to the border
+            // ring; the top row always has one, since the ring reaches into the maze
+            for (int c = 1; c < cols - 1; c++) {
+                if (maze.get(1, c) == MazeGrid.EMPTY) exitCandidates.add(new int[]{1, c});
+            }
+        }
+        
+        shuffle(exitCandidates, rand);
+        int numDoors = level == 2 ? Math.min(3, exitCandidates.size()) : 1;
+        
+        for (int i = 0; i < numDoors && i < exitCandidates.size(); i++) {
+            int[] pos = exitCandidates.get(i);
+            maze.set(pos[0], pos[1], MazeGrid.EXIT);
+        }
+        
+        placeOrbs(maze, 1, rows - 1, Math.max(25, (rows * cols) / 6), rand, orbCandidates);
+        return maze;
+    }
+    
+    // Scatters orbs over the open cells of rows [fromRow, toRow) off the side paths,
+    // which are all reachable. One pass of selection sampling over the list of
+    // candidates: each is taken with probability (orbs still to place) / (candidates
+    // left), which places exactly that many, uniformly, without retrying cells.
+    // Taken cells become power orbs the same way. candidates is scratch space for
+    // at least (toRow - fromRow) * cols cells
+    static void placeOrbs(MazeGrid maze, int fromRow, int toRow, int orbs, RandomGenerator rand, int[] candidates) {
+        int cols = maze.getCols();
+        int count = 0;
+        for (int r = fromRow; r < toRow; r++) {
+            for (int c = 1; c < cols - 1; c++) {
+                if (maze.get(r, c) == MazeGrid.EMPTY) {
+                    candidates[count++] = maze.index(r, c);
+                }
+            }
+        }
+        
+        int orbsToPlace = Math.min(orbs, count);
+        int powerOrbsToPlace = Math.min(Math.max(3, orbsToPlace / 10), orbsToPlace);
+        for (int i = 0; i < count && orbsToPlace > 0; i++) {
+            if (rand.nextInt(count - i) >= orbsToPlace) continue;
+            boolean power = rand.nextInt(orbsToPlace) < powerOrbsToPlace;
+            maze.set(candidates[i] / cols, candidates[i] % cols, power ? MazeGrid.POWER_ORB : MazeGrid.ORB);
+            orbsToPlace--;
+            if (power) {
+                powerOrbsToPlace--;
+            }
+        }
+    }
+    
+    // Collections.shuffle, for any generator: the same swaps in the same order
+    private static void shuffle(List<int[]> list, RandomGenerator rand) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, rand.nextInt(i + 1));
+        }
+    }
+    
+    // Whether walling in (r, c) keeps its open neighbours connected to each other.
+    // They are if they all sit on one unbroken run of open cells around it, walking
+    // the eight cells of its ring, each of which touches the next edge to edge
+    private static boolean canWallIn(MazeGrid maze, int r, int c) {
+        int start = -1;
+        for (int i = 0; i < 8 && start < 0; i++) {
+            if (maze.isWall(r + RING_DR[i], c + RING_DC[i])) start = i;
+        }
+        if (start < 0) return true;
+        
+        // Walk once round from a wall back to it, counting the open runs that
+        // hold at least one of the four side cells
+        int runs = 0;
+        boolean hasSide = false;
+        for (int k = 1; k <= 8; k++) {
+            int i = (start + k) & 7;
+            if (!maze.isWall(r + RING_DR[i], c + RING_DC[i])) {
+                hasSide |= (i & 1) == 0;
+            } else if (hasSide) {
+                runs++;
+                hasSide = false;
+            }
+        }
+        return runs <= 1;
+    }
+    
+    private static boolean isNearSpawn(int rows, int cols, int r, int c) {
+        int centerR = rows / 2;
+        int centerC = cols / 2;
+        return Math.abs(r - centerR) <= 2 && Math.abs(c - centerC) <= 2;
+    }
+    
+    // First enemy starts top-left as always; the rest on random open cells that
+    // are a safe path distance away from the player (and within chasing range)
+    private int[] spawnEnemies(int count, FlowField flowField, RandomGenerator rand) {
+        int rows = maze.getRows();
+        int cols = maze.getCols();
+        int[] cells = new int[Math.max(0, count)];
+        if (count <= 0) return cells;
+        
+        // Find first enemy's start position (top-left)
+        int enemyStartRow = 1;
+        int enemyStartCol = 1;
+        while (maze.get(enemyStartRow, enemyStartCol) != MazeGrid.EMPTY) {
+            enemyStartCol++;
+            if (enemyStartCol >= cols - 1) {
+                enemyStartCol = 1;
+                enemyStartRow++;
+            }
+        }
+        int first = maze.index(enemyStartRow, enemyStartCol);
+        cells[0] = first;
+        
+        for (int i = 1; i < count; i++) {
+            cells[i] = first;
+            for (int attempts = 0; attempts < 100; attempts++) {
+                int r = rand.nextInt(rows);
+                int c = rand.nextInt(cols);
+                int distance = flowField.distance(r, c);
+                if (distance != FlowField.UNREACHABLE && distance >= MazeSimulation.MIN_SPAWN_DISTANCE) {
+                    cells[i] = maze.index(r, c);
+                    break;
+                }
+            }
+        }
+        return cells;
+    }
+    
+    // Picks the real exit among the doors. Every open cell can be walked to, so
+    // any of them will do; there's always at least one door
+    private int[] pickRealExit(RandomGenerator rand) {
+        int cols = maze.getCols();
+        BitLayer doors = maze.layer(MazeGrid.EXIT);
+        List<int[]> exits = new ArrayList<>();
+        for (int cell = doors.nextSetCell(0); cell >= 0; cell = doors.nextSetCell(cell + 1)) {
+            exits.add(new int[]{cell / cols, cell % cols});
+        }
+        return exits.get(rand.nextInt(exits.size()));
+    }
+}
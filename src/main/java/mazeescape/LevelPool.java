@@ -0,0 +1,107 @@
+package mazeescape;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+// Levels laid out ahead of time on a background thread, so that moving on to the
+// next level or starting one over only swaps in a board that's already there. A
+// few layouts are kept queued for every level; taking one queues a replacement.
+// How many is capped by the cells they hold between them as well, so on big
+// boards the pool keeps fewer, and none once a single layout of every level
+// wouldn't fit - it must never be what runs a game on a huge board out of memory.
+//
+// Which boards a game gets doesn't depend on the worker at all: the n-th layout
+// of each level is laid out with a seed made from the pool's seed, the level and
+// n, whichever thread gets to it. If the game needs one before the worker has
+// started on it, take() lays it out on the spot, as a game without the pool would.
+final class LevelPool {
+    
+    // Layouts kept ready per level; 0 lays every level out when it's needed
+    static final int DEFAULT_DEPTH = Integer.getInteger("maze.pregenerate", 2);
+    // Board cells kept laid out across all levels at most - some 25 MB of boards
+    static final long MAX_CELLS = Long.getLong("maze.pregenerateCells", 1L << 24);
+    
+    // One low-priority worker for every pool; it never holds up the JVM exiting
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "level-pregeneration");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    
+    private final int rows;
+    private final int cols;
+    private final MazeGenerator generator;
+    private final long seed;
+    private final int depth;
+    private final List<ArrayDeque<FutureTask<LevelLayout>>> ready;
+    private final long[] queued; // layouts of each level queued so far
+    
+    LevelPool(int levels, int rows, int cols, MazeGenerator generator, long seed, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Pregeneration depth can't be negative: " + depth);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.generator = generator;
+        this.seed = seed;
+        this.depth = (int) Math.min(depth, MAX_CELLS / ((long) levels * rows * cols));
+        this.ready = new ArrayList<>(levels);
+        this.queued = new long[levels];
+        for (int level = 1; level <= levels; level++) {
+            ArrayDeque<FutureTask<LevelLayout>> layouts = new ArrayDeque<>();
+            for (int i = 0; i < this.depth; i++) {
+                layouts.add(queue(level));
+            }
+            ready.add(layouts);
+        }
+    }
+    
+    // The next layout of the given level; normally ready already
+    LevelLayout take(int level) {
+        ArrayDeque<FutureTask<LevelLayout>> layouts = ready.get(level - 1);
+        FutureTask<LevelLayout> next = depth > 0 ? layouts.poll() : queue(level);
+        if (depth > 0) {
+            layouts.add(queue(level));
+        }
+        
+        // Does nothing if the worker has got to it; otherwise it's laid out here
+        next.run();
+        try {
+            return next.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException("Laying out level " + level + " failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for level " + level, e);
+        }
+    }
+    
+    private FutureTask<LevelLayout> queue(int level) {
+        long layoutSeed = seedFor(level, queued[level - 1]++);
+        FutureTask<LevelLayout> task = new FutureTask<>(
+                () -> new LevelLayout(level, rows, cols, generator, new Random(layoutSeed)));
+        if (depth > 0) {
+            WORKER.execute(task);
+        }
+        return task;
+    }
+    
+    // SplitMix64's finalizer over the pool seed, the level and the layout's number,
+    // so neighbouring layouts get unrelated seeds
+    private long seedFor(int level, long n) {
+        long z = seed + level * 0x9E3779B97F4A7C15L + n * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
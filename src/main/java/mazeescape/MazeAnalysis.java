@@ -0,0 +1,249 @@
+package mazeescape;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Bulk analysis of the levels the game lays out, for tuning LEVEL_TIMES, the orb
+// counts and the obstacles per level:
+//   java -cp target/classes mazeescape.MazeAnalysis [mazes per level] [seed] [threads]
+// Every level is laid out exactly as the game would (board size, generator and
+// enemy counts come from the same -Dmaze.* properties), in parallel on all cores
+// or the given number of threads, and measured: whether every orb and door can be
+// reached from the player's start, dead ends, how far the enemies start from the
+// player by path, and the length of a walk that takes every orb and ends at the
+// real exit. Prints a histogram of each per level, and the throughput.
+//
+// The mazes are dealt out in blocks, each with a SplittableRandom split off the
+// seed's in order before any work starts, so the same seed gives the same numbers
+// whatever the thread count.
+final class MazeAnalysis {
+    
+    private static final int BLOCK_SIZE = 256; // mazes per block
+    private static final double PLAYER_CELLS_PER_SECOND = MazeSimulation.PLAYER_SPEED * 60
+            / MazeSimulation.CELL_SIZE;
+    
+    // What one thread has measured for a level so far, and its scratch space
+    private static final class LevelStats {
+        final Histogram orbs = new Histogram();
+        final Histogram deadEnds = new Histogram();
+        final Histogram enemyDistance = new Histogram();
+        final Histogram nearestEnemy = new Histogram();
+        final Histogram tourCells = new Histogram();
+        final Histogram tourSeconds = new Histogram();
+        long mazes = 0;
+        long unreachable = 0; // mazes with an orb, door or enemy the player can't get to
+        long overTime = 0; // mazes whose orb walk alone takes longer than the level time
+        
+        private final int[] distance;
+        private final int[] queue;
+        private final boolean[] needed;
+        final LevelLayout.Scratch layoutScratch; // every level this thread lays out is laid out with it
+        
+        LevelStats(int rows, int cols) {
+            layoutScratch = new LevelLayout.Scratch(rows, cols);
+            distance = new int[rows * cols];
+            queue = new int[rows * cols];
+            needed = new boolean[rows * cols];
+        }
+        
+        LevelStats merge(LevelStats other) {
+            orbs.merge(other.orbs);
+            deadEnds.merge(other.deadEnds);
+            enemyDistance.merge(other.enemyDistance);
+            nearestEnemy.merge(other.nearestEnemy);
+            tourCells.merge(other.tourCells);
+            tourSeconds.merge(other.tourSeconds);
+            mazes += other.mazes;
+            unreachable += other.unreachable;
+            overTime += other.overTime;
+            return this;
+        }
+        
+        void add(LevelLayout layout) {
+            MazeGrid maze = layout.maze;
+            int cols = maze.getCols();
+            int visited = search(maze, maze.index(layout.playerRow, layout.playerCol));
+            boolean allReachable = true;
+            
+            // Orbs and doors, which the walk has to pass, and dead ends
+            int orbCount = 0;
+            int deadEndCount = 0;
+            for (int cell = 0; cell < distance.length; cell++) {
+                byte type = maze.get(cell / cols, cell % cols);
+                if (type == MazeGrid.WALL) continue;
+                if (type == MazeGrid.ORB || type == MazeGrid.POWER_ORB) {
+                    orbCount++;
+                    needed[cell] = true;
+                }
+                if ((type == MazeGrid.ORB || type == MazeGrid.POWER_ORB || type == MazeGrid.EXIT)
+                        && distance[cell] == FlowField.UNREACHABLE) {
+                    allReachable = false;
+                }
+                if (openNeighbours(maze, cell / cols, cell % cols) == 1) {
+                    deadEndCount++;
+                }
+            }
+            orbs.add(orbCount);
+            deadEnds.add(deadEndCount);
+            
+            int nearest = Integer.MAX_VALUE;
+            for (int cell : layout.enemyCells) {
+                if (distance[cell] == FlowField.UNREACHABLE) {
+                    allReachable = false;
+                    continue;
+                }
+                enemyDistance.add(distance[cell]);
+                nearest = Math.min(nearest, distance[cell]);
+            }
+            if (nearest != Integer.MAX_VALUE) {
+                nearestEnemy.add(nearest);
+            }
+            
+            // The walk over the search tree that reaches every orb and ends at the
+            // exit crosses each tree edge leading to one twice, except those on the
+            // way to the exit, once: an upper bound on the shortest such walk that's
+            // exact on a perfect maze
+            int exit = maze.index(layout.realExit[0], layout.realExit[1]);
+            needed[exit] = true;
+            int edges = 0;
+            for (int i = visited - 1; i > 0; i--) {
+                int cell = queue[i];
+                if (!needed[cell]) continue;
+                needed[cell] = false;
+                edges++;
+                needed[parent(maze, cell)] = true;
+            }
+            needed[queue[0]] = false;
+            if (distance[exit] == FlowField.UNREACHABLE) {
+                allReachable = false;
+            } else {
+                int tour = 2 * edges - distance[exit];
+                tourCells.add(tour);
+                int seconds = (int) Math.ceil(tour / PLAYER_CELLS_PER_SECOND);
+                tourSeconds.add(seconds);
+                if (seconds > MazeSimulation.LEVEL_TIMES[Math.min(layout.level, MazeSimulation.LEVEL_TIMES.length) - 1]) {
+                    overTime++;
+                }
+            }
+            // Whatever the search didn't reach is still marked
+            if (!allReachable) {
+                unreachable++;
+                Arrays.fill(needed, false);
+            }
+            mazes++;
+        }
+        
+        // Breadth-first search from start over every open cell, uncapped; returns
+        // how many cells it reached, in order at the front of queue
+        private int search(MazeGrid maze, int start) {
+            Arrays.fill(distance, FlowField.UNREACHABLE);
+            int rows = maze.getRows();
+            int cols = maze.getCols();
+            int head = 0;
+            int tail = 0;
+            distance[start] = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int cell = queue[head++];
+                int r = cell / cols;
+                int c = cell - r * cols;
+                int next = distance[cell] + 1;
+                if (r > 0) tail = visit(maze, cell - cols, next, tail);
+                if (r < rows - 1) tail = visit(maze, cell + cols, next, tail);
+                if (c > 0) tail = visit(maze, cell - 1, next, tail);
+                if (c < cols - 1) tail = visit(maze, cell + 1, next, tail);
+            }
+            return tail;
+        }
+        
+        private int visit(MazeGrid maze, int cell, int next, int tail) {
+            if (distance[cell] != FlowField.UNREACHABLE || maze.isWall(cell / maze.getCols(), cell % maze.getCols())) {
+                return tail;
+            }
+            distance[cell] = next;
+            queue[tail] = cell;
+            return tail + 1;
+        }
+        
+        // A neighbour one step nearer the start; the same one every time
+        private int parent(MazeGrid maze, int cell) {
+            int cols = maze.getCols();
+            int r = cell / cols;
+            int c = cell - r * cols;
+            int previous = distance[cell] - 1;
+            if (r > 0 && distance[cell - cols] == previous) return cell - cols;
+            if (r < maze.getRows() - 1 && distance[cell + cols] == previous) return cell + cols;
+            if (c > 0 && distance[cell - 1] == previous) return cell - 1;
+            return cell + 1;
+        }
+        
+        private static int openNeighbours(MazeGrid maze, int r, int c) {
+            int open = 0;
+            if (!maze.isWall(r - 1, c)) open++;
+            if (!maze.isWall(r + 1, c)) open++;
+            if (!maze.isWall(r, c - 1)) open++;
+            if (!maze.isWall(r, c + 1)) open++;
+            return open;
+        }
+    }
+    
+    // Lays out and measures count levels of one kind on the given pool
+    static LevelStats analyse(int level, int rows, int cols, MazeGenerator generator, long count,
+            SplittableRandom seeds, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+        int blocks = (int) ((count + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        SplittableRandom[] blockSeeds = new SplittableRandom[blocks];
+        for (int block = 0; block < blocks; block++) {
+            blockSeeds[block] = seeds.split();
+        }
+        return pool.submit(() -> IntStream.range(0, blocks).parallel().collect(
+                () -> new LevelStats(rows, cols),
+                (stats, block) -> {
+                    SplittableRandom rand = blockSeeds[block];
+                    long end = Math.min(count, (long) (block + 1) * BLOCK_SIZE);
+                    for (long i = (long) block * BLOCK_SIZE; i < end; i++) {
+                        stats.add(new LevelLayout(level, rows, cols, generator, rand, stats.layoutScratch));
+                    }
+                },
+                LevelStats::merge)).get();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        long count = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int rows = Integer.getInteger("maze.rows", MazeSimulation.DEFAULT_ROWS);
+        int cols = Integer.getInteger("maze.cols", MazeSimulation.DEFAULT_COLS);
+        MazeGrid.checkSize(rows, cols);
+        MazeGenerator generator = MazeGenerator.named(MazeSimulation.GENERATOR, MazeSimulation.BRAID);
+        
+        System.out.printf("%d mazes per level, %dx%d, %s generator, seed %d, %d threads%n", count, rows, cols,
+                MazeSimulation.GENERATOR, seed, threads);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        try {
+            for (int level = 1; level <= MazeSimulation.LEVELS; level++) {
+                long start = System.nanoTime();
+                LevelStats stats = analyse(level, rows, cols, generator, count, seeds.split(), pool);
+                double elapsed = (System.nanoTime() - start) / 1e9;
+                
+                int timeLimit = MazeSimulation.LEVEL_TIMES[Math.min(level, MazeSimulation.LEVEL_TIMES.length) - 1];
+                System.out.printf("%nLevel %d - %d s, %d enemies: %d mazes in %.2f s (%.0f mazes/s)%n", level,
+                        timeLimit, MazeSimulation.enemyCount(level), stats.mazes, elapsed, stats.mazes / elapsed);
+                System.out.printf("  with something out of reach: %d (%.3f%%), orb walk over the time limit: %d (%.3f%%)%n",
+                        stats.unreachable, 100.0 * stats.unreachable / stats.mazes, stats.overTime,
+                        100.0 * stats.overTime / stats.mazes);
+                System.out.print(stats.orbs.format("orbs", 10, 40));
+                System.out.print(stats.deadEnds.format("dead ends", 10, 40));
+                System.out.print(stats.tourCells.format("orb walk to exit (cells)", 10, 40));
+                System.out.print(stats.tourSeconds.format("at full speed (s)", 10, 40));
+                System.out.print(stats.enemyDistance.format("enemy start distance", 10, 40));
+                System.out.print(stats.nearestEnemy.format("nearest enemy", 10, 40));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,576 @@
+package mazeescape;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+public class MazeEscape extends JFrame {
+    
+    // HUD colors
+    private static final Color EMPTY_HEART = new Color(100, 100, 100);
+    private static final Color TIME_HIGH = new Color(0, 255, 0);
+    private static final Color TIME_MEDIUM = new Color(255, 255, 0);
+    private static final Color TIME_LOW = new Color(255, 0, 0);
+    
+    // Cached HUD strings so the tick path doesn't build any
+    private static final TextCache HUD_COMBO_TEXT = new TextCache("COMBO: x", "");
+    private static final TextCache SECONDS_TEXT = new TextCache("", "s");
+    private static final TextCache NUMBER_TEXT = new TextCache("", "");
+    
+    private static final int INITIAL_LIVES = MazeSimulation.INITIAL_LIVES;
+    
+    // The game itself; this window only feeds it input and shows its state
+    private final MazeSimulation simulation;
+    
+    // UI elements
+    private GameView gamePanel;
+    private CanvasView canvasView; // null unless the canvas backend draws the frames
+    private Component gameScreen; // whichever of the two is shown while playing
+    private JLabel scoreLabel;
+    private JLabel levelLabel;
+    private JLabel timerLabel;
+    private JLabel orbsLabel;
+    private JLabel livesLabel;
+    private JLabel comboLabel;
+    private JProgressBar timeBar;
+    private JButton restartBtn;
+    private JButton nextBtn;
+    private JLabel messageLabel;
+    private JPanel startScreen;
+    private JPanel gameContainer;
+    
+    // Game loop - fixed simulation step, sprites drawn at positions interpolated between steps
+    private GameLoop gameLoop;
+    
+    // Every step's input, so the session can be played again (null if not recording)
+    private final SessionRecording.Recorder recorder;
+    
+    // Input handling - held keys are read every step, commands are sent once
+    private final InputQueue inputQueue = new InputQueue();
+    
+    // How long ticks, paints and HUD updates take, and the time from a direction
+    // being pressed to the end of the step that moved the player for it
+    private final FrameTimings timings = new FrameTimings();
+    
+    // HUD values from the simulation, applied to the labels on the EDT once per frame
+    private final HudModel hud = new HudModel(new HudLabels(), SwingUtilities::invokeLater, timings.hud);
+    
+    // Heart labels for lives display
+    private JLabel[] heartLabels = new JLabel[INITIAL_LIVES];
+    
+    // Arrow buttons
+    private JPanel arrowPanel;
+    private ArrowButton upBtn, downBtn, leftBtn, rightBtn;
+    
+    public MazeEscape() {
+        long seed = Long.getLong("maze.seed", System.nanoTime());
+        int rows = Integer.getInteger("maze.rows", MazeSimulation.DEFAULT_ROWS);
+        int cols = Integer.getInteger("maze.cols", MazeSimulation.DEFAULT_COLS);
+        int tickRate = Integer.getInteger("maze.tickRate", GameLoop.DEFAULT_TICK_RATE);
+        simulation = new MazeSimulation(seed, rows, cols);
+        recorder = SessionRecording.startRecording(seed, rows, cols, tickRate);
+        if (recorder != null) {
+            // The window exits the JVM when closed; whatever's recorded is written out then
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::close, "recording-close"));
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::printInputLatency, "input-latency"));
+        timings.watchGarbageCollections();
+        String timingsFile = System.getProperty("maze.timings", "");
+        if (!timingsFile.isEmpty()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> exportTimings(timingsFile, tickRate),
+                    "timings-export"));
+        }
+        
+        setTitle("MAZE ESCAPE");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setResizable(false);
+        
+        // Create main panel
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setBackground(new Color(20, 20, 40));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        // Create HUD panel with high contrast
+        JPanel hudPanel = new JPanel(new GridLayout(7, 1, 5, 8));
+        hudPanel.setBackground(new Color(30, 30, 50));
+        hudPanel.setBorder(BorderFactory.createLineBorder(Color.WHITE, 2));
+        hudPanel.setPreferredSize(new Dimension(250, 0));
+        
+        // Stats section
+        JPanel statsPanel = new JPanel(new GridLayout(2, 2, 10, 5));
+        statsPanel.setBackground(new Color(30, 30, 50));
+        statsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        // Score
+        JPanel scorePanel = new JPanel(new BorderLayout());
+        scorePanel.setBackground(new Color(30, 30, 50));
+        JLabel scoreTitle = new JLabel("SCORE:");
+        scoreTitle.setFont(new Font("Arial", Font.BOLD, 16));
+        scoreTitle.setForeground(Color.CYAN);
+        scoreLabel = new JLabel("0");
+        scoreLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        scoreLabel.setForeground(Color.WHITE);
+        scorePanel.add(scoreTitle, BorderLayout.WEST);
+        scorePanel.add(scoreLabel, BorderLayout.EAST);
+        
+        // Level
+        JPanel levelPanel = new JPanel(new BorderLayout());
+        levelPanel.setBackground(new Color(30, 30, 50));
+        JLabel levelTitle = new JLabel("LEVEL:");
+        levelTitle.setFont(new Font("Arial", Font.BOLD, 16));
+        levelTitle.setForeground(Color.CYAN);
+        levelLabel = new JLabel("1");
+        levelLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        levelLabel.setForeground(Color.WHITE);
+        levelPanel.add(levelTitle, BorderLayout.WEST);
+        levelPanel.add(levelLabel, BorderLayout.EAST);
+        
+        // Time
+        JPanel timePanel = new JPanel(new BorderLayout());
+        timePanel.setBackground(new Color(30, 30, 50));
+        JLabel timeTitle = new JLabel("TIME:");
+        timeTitle.setFont(new Font("Arial", Font.BOLD, 16));
+        timeTitle.setForeground(Color.CYAN);
+        timerLabel = new JLabel("--");
+        timerLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        timerLabel.setForeground(Color.WHITE);
+        timePanel.add(timeTitle, BorderLayout.WEST);
+        timePanel.add(timerLabel, BorderLayout.EAST);
+        
+        // Time progress bar
+        timeBar = new JProgressBar(0, 100);
+        timeBar.setValue(100);
+        timeBar.setForeground(new Color(0, 255, 0));
+        timeBar.setBackground(new Color(60, 60, 80));
+        timeBar.setBorder(BorderFactory.createLineBorder(Color.WHITE, 1));
+        
+        statsPanel.add(scorePanel);
+        statsPanel.add(levelPanel);
+        statsPanel.add(timePanel);
+        statsPanel.add(timeBar);
+        
+        // Lives and orbs
+        JPanel infoPanel = new JPanel(new GridLayout(2, 1, 5, 5));
+        infoPanel.setBackground(new Color(30, 30, 50));
+        infoPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        
+        // Lives panel with individual heart labels
+        JPanel livesPanel = new JPanel(new BorderLayout());
+        livesPanel.setBackground(new Color(30, 30, 50));
+        JLabel livesTitle = new JLabel("LIVES:");
+        livesTitle.setFont(new Font("Arial", Font.BOLD, 14));
+        livesTitle.setForeground(Color.YELLOW);
+        livesPanel.add(livesTitle, BorderLayout.WEST);
+        
+        JPanel heartsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 2, 0));
+        heartsPanel.setBackground(new Color(30, 30, 50));
+        
+        // Initialize heart labels
+        for (int i = 0; i < INITIAL_LIVES; i++) {
+            heartLabels[i] = new JLabel("♥");
+            heartLabels[i].setFont(new Font("Arial", Font.BOLD, 18));
+            heartLabels[i].setForeground(Color.RED);
+            heartsPanel.add(heartLabels[i]);
+        }
+        
+        livesPanel.add(heartsPanel, BorderLayout.CENTER);
+        
+        // Orbs
+        JPanel orbsPanel = new JPanel(new BorderLayout());
+        orbsPanel.setBackground(new Color(30, 30, 50));
+        JLabel orbsTitle = new JLabel("ORBS:");
+        orbsTitle.setFont(new Font("Arial", Font.BOLD, 14));
+        orbsTitle.setForeground(Color.YELLOW);
+        orbsLabel = new JLabel("0");
+        orbsLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        orbsLabel.setForeground(Color.WHITE);
+        orbsPanel.add(orbsTitle, BorderLayout.WEST);
+        orbsPanel.add(orbsLabel, BorderLayout.EAST);
+        
+        infoPanel.add(livesPanel);
+        infoPanel.add(orbsPanel);
+        
+        // Combo
+        comboLabel = new JLabel("COMBO: x1");
+        comboLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        comboLabel.setForeground(Color.YELLOW);
+        comboLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        
+        // Create arrow panel
+        arrowPanel = new JPanel(new GridLayout(3, 3, 5, 5));
+        arrowPanel.setBackground(new Color(30, 30, 50));
+        arrowPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        arrowPanel.setPreferredSize(new Dimension(180, 180));
+        
+        // Create arrow buttons
+        upBtn = new ArrowButton("↑", KeyEvent.VK_UP);
+        downBtn = new ArrowButton("↓", KeyEvent.VK_DOWN);
+        leftBtn = new ArrowButton("←", KeyEvent.VK_LEFT);
+        rightBtn = new ArrowButton("→", KeyEvent.VK_RIGHT);
+        
+        // Arrange buttons in grid
+        arrowPanel.add(new JLabel()); // Top-left empty
+        arrowPanel.add(upBtn);
+        arrowPanel.add(new JLabel()); // Top-right empty
+        arrowPanel.add(leftBtn);
+        arrowPanel.add(new JLabel()); // Center empty
+        arrowPanel.add(rightBtn);
+        arrowPanel.add(new JLabel()); // Bottom-left empty
+        arrowPanel.add(downBtn);
+        arrowPanel.add(new JLabel()); // Bottom-right empty
+        
+        // Buttons
+        JPanel buttonPanel = new JPanel(new GridLayout(1, 2, 8, 0));
+        buttonPanel.setBackground(new Color(30, 30, 50));
+        restartBtn = new JButton("Restart");
+        restartBtn.setFont(new Font("Arial", Font.BOLD, 12));
+        restartBtn.setBackground(new Color(100, 100, 200));
+        restartBtn.setForeground(Color.WHITE);
+        nextBtn = new JButton("Next");
+        nextBtn.setFont(new Font("Arial", Font.BOLD, 12));
+        nextBtn.setBackground(new Color(100, 100, 200));
+        nextBtn.setForeground(Color.WHITE);
+        buttonPanel.add(restartBtn);
+        buttonPanel.add(nextBtn);
+        
+        // Message
+        messageLabel = new JLabel("");
+        messageLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        messageLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        messageLabel.setForeground(Color.YELLOW);
+        
+        // Arrange HUD
+        hudPanel.add(statsPanel);
+        hudPanel.add(infoPanel);
+        hudPanel.add(comboLabel);
+        hudPanel.add(arrowPanel);
+        hudPanel.add(buttonPanel);
+        hudPanel.add(new JLabel()); // Spacer
+        hudPanel.add(messageLabel);
+        
+        // Create game panel
+        gamePanel = new GameView(simulation, timings);
+        
+        // Render backend - Swing paints the panel on the EDT as it's repainted, the
+        // canvas has the game loop draw and show every frame itself
+        String renderer = System.getProperty("maze.renderer", "swing");
+        if (renderer.equals("canvas")) {
+            canvasView = new CanvasView(gamePanel, timings, Integer.getInteger("maze.buffers",
+                    CanvasView.DEFAULT_BUFFERS));
+            gameScreen = canvasView;
+        } else if (renderer.equals("swing")) {
+            gameScreen = gamePanel;
+        } else {
+            throw new IllegalArgumentException("Unsupported renderer: " + renderer + " (expected swing or canvas)");
+        }
+        
+        // Create game container
+        gameContainer = new JPanel(new BorderLayout());
+        gameContainer.setBackground(new Color(20, 20, 40));
+        
+        // Title
+        JPanel titlePanel = new JPanel(new BorderLayout());
+        titlePanel.setBackground(new Color(20, 20, 40));
+        titlePanel.setPreferredSize(new Dimension(0, 35));
+        
+        JLabel gameTitle = new JLabel("MAZE ESCAPE", SwingConstants.CENTER);
+        gameTitle.setFont(new Font("Arial", Font.BOLD, 20));
+        gameTitle.setForeground(Color.WHITE);
+        
+        titlePanel.add(gameTitle, BorderLayout.CENTER);
+        gameContainer.add(titlePanel, BorderLayout.NORTH);
+        
+        // Create start screen
+        startScreen = new JPanel(new BorderLayout());
+        startScreen.setBackground(new Color(20, 20, 40));
+        startScreen.setPreferredSize(gamePanel.getPreferredSize());
+        
+        JLabel titleLabel = new JLabel("MAZE ESCAPE", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 36));
+        titleLabel.setForeground(Color.CYAN);
+        
+        JLabel startLabel = new JLabel("Press SPACE or Click to Start", SwingConstants.CENTER);
+        startLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        startLabel.setForeground(Color.YELLOW);
+        
+        JPanel startButtonPanel = new JPanel(new GridLayout(1, 1));
+        JButton startButton = new JButton("START GAME");
+        startButton.setFont(new Font("Arial", Font.BOLD, 16));
+        startButton.setBackground(new Color(0, 150, 255));
+        startButton.setForeground(Color.WHITE);
+        startButton.addActionListener(e -> startGame());
+        
+        startButtonPanel.add(startButton);
+        
+        JPanel centerPanel = new JPanel(new GridLayout(3, 1, 20, 20));
+        centerPanel.setOpaque(false);
+        centerPanel.add(titleLabel);
+        centerPanel.add(startLabel);
+        centerPanel.add(startButtonPanel);
+        
+        startScreen.add(centerPanel, BorderLayout.CENTER);
+        gameContainer.add(startScreen, BorderLayout.CENTER);
+        
+        // Add components to main panel
+        mainPanel.add(gameContainer, BorderLayout.CENTER);
+        mainPanel.add(hudPanel, BorderLayout.EAST);
+        
+        // Add to frame
+        add(mainPanel);
+        
+        // Focus handling
+        setFocusable(true);
+        setFocusTraversalKeysEnabled(false);
+        
+        // Event handlers - game state is only touched on the game loop thread
+        restartBtn.addActionListener(e -> sendCommand(MazeSimulation.RESTART));
+        nextBtn.addActionListener(e -> sendCommand(MazeSimulation.NEXT_LEVEL));
+        
+        // Keyboard input
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!simulation.isStarted() && e.getKeyCode() == KeyEvent.VK_SPACE) {
+                    startGame();
+                    return;
+                }
+                
+                int direction = keyDirection(e.getKeyCode());
+                if (direction != 0) {
+                    inputQueue.press(keySource(e.getKeyCode()), direction);
+                }
+                
+                if (e.getKeyCode() == KeyEvent.VK_SPACE) {
+                    sendCommand(MazeSimulation.PAUSE);
+                }
+                
+                if (e.getKeyCode() == KeyEvent.VK_H) {
+                    gamePanel.toggleHint();
+                }
+                
+                if (e.getKeyCode() == KeyEvent.VK_F2) {
+                    gamePanel.toggleTimings();
+                }
+                
+                if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    gamePanel.toggleRepaintRegions();
+                }
+            }
+            
+            @Override
+            public void keyReleased(KeyEvent e) {
+                int direction = keyDirection(e.getKeyCode());
+                if (direction != 0) {
+                    inputQueue.release(keySource(e.getKeyCode()), direction);
+                }
+            }
+        });
+        
+        // Mouse click for start screen
+        startScreen.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (!simulation.isStarted()) {
+                    startGame();
+                }
+            }
+        });
+        
+        // Sounds and the start screen follow what happens in the game
+        simulation.setListener(new MazeSimulation.Listener() {
+            @Override
+            public void orbEaten(int r, int c, boolean power) {
+                gamePanel.orbEaten(r, c);
+                if (power) {
+                    playChime();
+                } else {
+                    playBeep();
+                }
+            }
+            
+            @Override
+            public void gameReset() {
+                // Show start screen again
+                SwingUtilities.invokeLater(() -> {
+                    gameContainer.remove(gameScreen);
+                    gameContainer.add(startScreen, BorderLayout.CENTER);
+                    gameContainer.revalidate();
+                    gameContainer.repaint();
+                });
+            }
+        });
+        
+        // Start game loop
+        GameSession session = new GameSession(simulation, gamePanel, inputQueue, recorder, hud, timings, canvasView);
+        gameLoop = new GameLoop(session, tickRate, Integer.getInteger("maze.fps", displayRefreshRate()));
+        gameLoop.start();
+        
+        pack();
+        setLocationRelativeTo(null);
+        setVisible(true);
+        requestFocusInWindow();
+    }
+    
+    private void printInputLatency() {
+        LatencyHistogram inputLatency = timings.input;
+        if (inputLatency.count() == 0) return;
+        System.out.printf("Key press to movement over %d presses: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                inputLatency.count(), inputLatency.percentile(0.5) / 1e6, inputLatency.percentile(0.99) / 1e6,
+                inputLatency.max() / 1e6);
+    }
+    
+    private void exportTimings(String file, int tickRate) {
+        try {
+            timings.export(Path.of(file), tickRate, canvasView != null ? canvasView.describe() : "swing");
+            System.out.println("Frame timings written to " + file);
+        } catch (IOException e) {
+            System.err.println("Couldn't write frame timings: " + e);
+        }
+    }
+    
+    // Direction a movement key stands for, 0 for any other key
+    private static int keyDirection(int keyCode) {
+        return switch (keyCode) {
+            case KeyEvent.VK_UP, KeyEvent.VK_W -> MazeSimulation.UP;
+            case KeyEvent.VK_DOWN, KeyEvent.VK_S -> MazeSimulation.DOWN;
+            case KeyEvent.VK_LEFT, KeyEvent.VK_A -> MazeSimulation.LEFT;
+            case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> MazeSimulation.RIGHT;
+            default -> 0;
+        };
+    }
+    
+    private static int keySource(int keyCode) {
+        return switch (keyCode) {
+            case KeyEvent.VK_W, KeyEvent.VK_A, KeyEvent.VK_S, KeyEvent.VK_D -> InputQueue.WASD_KEYS;
+            default -> InputQueue.ARROW_KEYS;
+        };
+    }
+    
+    // Safe from any thread; the simulation picks it up on its next step
+    private void sendCommand(int command) {
+        inputQueue.sendCommand(command);
+    }
+    
+    // Render as often as the screen refreshes, 60 Hz if the device won't say
+    private int displayRefreshRate() {
+        int refreshRate = getGraphicsConfiguration().getDevice().getDisplayMode().getRefreshRate();
+        return refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN ? refreshRate : 60;
+    }
+    
+    // Arrow button class - FIXED
+    private class ArrowButton extends JButton {
+        private int keyCode;
+        private boolean isPressed = false;
+        
+        public ArrowButton(String text, int keyCode) {
+            super(text);
+            this.keyCode = keyCode;
+            setFont(new Font("Arial", Font.BOLD, 18));
+            setBackground(new Color(100, 100, 200));
+            setForeground(Color.WHITE);
+            setFocusable(false);
+            setBorder(BorderFactory.createLineBorder(Color.WHITE, 1));
+            setPreferredSize(new Dimension(50, 50));
+            
+            // Mouse press handler
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    isPressed = true;
+                    inputQueue.press(InputQueue.BUTTONS, keyDirection(keyCode));
+                }
+                
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    isPressed = false;
+                    inputQueue.release(InputQueue.BUTTONS, keyDirection(keyCode));
+                }
+            });
+        }
+        
+        public boolean isPressed() {
+            return isPressed;
+        }
+    }
+    
+    private void startGame() {
+        gameContainer.remove(startScreen);
+        gameContainer.add(gameScreen, BorderLayout.CENTER);
+        gameContainer.revalidate();
+        gameContainer.repaint();
+        sendCommand(MazeSimulation.START);
+    }
+    
+    // The HUD's Swing side, on the EDT
+    private class HudLabels implements HudModel.Labels {
+        @Override
+        public void showScore(int score) {
+            // No upper bound, so not cached; only formatted when it changes
+            scoreLabel.setText(Integer.toString(score));
+        }
+        
+        @Override
+        public void showLevel(int level) {
+            levelLabel.setText(NUMBER_TEXT.get(level));
+        }
+        
+        @Override
+        public void showSeconds(int seconds) {
+            timerLabel.setText(SECONDS_TEXT.get(seconds));
+        }
+        
+        @Override
+        public void showOrbs(int orbs) {
+            orbsLabel.setText(NUMBER_TEXT.get(orbs));
+        }
+        
+        // Update lives display with individual heart labels
+        @Override
+        public void showLives(int lives) {
+            for (int i = 0; i < INITIAL_LIVES; i++) {
+                if (i < lives) {
+                    heartLabels[i].setText("♥");
+                    heartLabels[i].setForeground(Color.RED);
+                } else {
+                    heartLabels[i].setText("♡");
+                    heartLabels[i].setForeground(EMPTY_HEART); // Gray for empty
+                }
+            }
+        }
+        
+        @Override
+        public void showCombo(int combo) {
+            comboLabel.setText(HUD_COMBO_TEXT.get(Math.max(1, combo)));
+        }
+        
+        @Override
+        public void showTimePercent(int timePercent) {
+            timeBar.setValue(timePercent);
+        }
+        
+        @Override
+        public void showTimeColor(int timeColor) {
+            timeBar.setForeground(timeColor == 0 ? TIME_HIGH : timeColor == 1 ? TIME_MEDIUM : TIME_LOW);
+        }
+        
+        @Override
+        public void showMessage(String message) {
+            messageLabel.setText(message);
+        }
+    }
+    
+    private void playBeep() {
+        System.out.println("\007");
+    }
+    
+    private void playChime() {
+        System.out.println("\007");
+    }
+    
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> new MazeEscape());
+    }
+}
@@ -0,0 +1,21 @@
+package mazeescape;
+
+import java.util.random.RandomGenerator;
+
+// Lays out the walls of a level. A generated board has only WALL and EMPTY cells,
+// an open ring of paths along its edge, and every open cell can be walked to from
+// every other one. Orbs, exits and spawns are placed on it afterwards.
+interface MazeGenerator {
+    
+    MazeGrid generate(int rows, int cols, RandomGenerator rand);
+    
+    // The generator picked with -Dmaze.generator; braid only applies to eller
+    static MazeGenerator named(String name, double braid) {
+        return switch (name) {
+            case "eller" -> new EllerGenerator(braid);
+            case "scatter" -> new ScatterGenerator();
+            default -> throw new IllegalArgumentException("Unknown maze generator: " + name
+                    + " (expected eller or scatter)");
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// The board, one byte per cell in a single row-major array indexed by r * cols + c.
+// A 4096x4096 maze is 16 MB here instead of 64 MB of ints plus a header per row,
+// and scanning a row walks consecutive bytes. All reads and writes of the maze
+// go through this class. Walls, orbs, power orbs and exits are also kept as bit
+// layers, updated on every write, for counting, finding and flood filling them
+// 64 cells at a time.
+final class MazeGrid {
+    
+    // Cell types
+    static final byte EMPTY = 0;
+    static final byte WALL = 1;
+    static final byte ORB = 2;
+    static final byte POWER_ORB = 3;
+    static final byte EXIT = 4;
+    
+    // The generator needs a border, a ring of paths and a clear spawn area
+    static final int MIN_SIZE = 7;
+    static final int MAX_SIZE = 4096;
+    
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+    private final BitLayer walls;
+    private final BitLayer orbs;
+    private final BitLayer powerOrbs;
+    private final BitLayer exits;
+    
+    MazeGrid(int rows, int cols) {
+        checkSize(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new byte[rows * cols];
+        this.walls = new BitLayer(rows, cols);
+        this.orbs = new BitLayer(rows, cols);
+        this.powerOrbs = new BitLayer(rows, cols);
+        this.exits = new BitLayer(rows, cols);
+    }
+    
+    static void checkSize(int rows, int cols) {
+        if (rows < MIN_SIZE || rows > MAX_SIZE || cols < MIN_SIZE || cols > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported maze size: " + rows + "x" + cols
+                    + " (rows and columns must be between " + MIN_SIZE + " and " + MAX_SIZE + ")");
+        }
+    }
+    
+    int getRows() {
+        return rows;
+    }
+    
+    int getCols() {
+        return cols;
+    }
+    
+    boolean inBounds(int r, int c) {
+        return r >= 0 && r < rows && c >= 0 && c < cols;
+    }
+    
+    int index(int r, int c) {
+        return r * cols + c;
+    }
+    
+    byte get(int r, int c) {
+        return cells[r * cols + c];
+    }
+    
+    byte get(int index) {
+        return cells[index];
+    }
+    
+    void set(int r, int c, byte type) {
+        int index = r * cols + c;
+        BitLayer old = layer(cells[index]);
+        if (old != null) {
+            old.clear(r, c);
+        }
+        cells[index] = type;
+        BitLayer now = layer(type);
+        if (now != null) {
+            now.set(r, c);
+        }
+    }
+    
+    // Anything outside the board counts as wall
+    boolean isWall(int r, int c) {
+        return !inBounds(r, c) || cells[r * cols + c] == WALL;
+    }
+    
+    void fill(byte type) {
+        Arrays.fill(cells, type);
+        walls.setAll(type == WALL);
+        orbs.setAll(type == ORB);
+        powerOrbs.setAll(type == POWER_ORB);
+        exits.setAll(type == EXIT);
+    }
+    
+    void fillRow(int r, byte type) {
+        Arrays.fill(cells, r * cols, (r + 1) * cols, type);
+        walls.setRow(r, type == WALL);
+        orbs.setRow(r, type == ORB);
+        powerOrbs.setRow(r, type == POWER_ORB);
+        exits.setRow(r, type == EXIT);
+    }
+    
+    // Drops the top n rows and moves the rest up, for a board that scrolls; the
+    // rows freed at the bottom are walls
+    void shiftUp(int n) {
+        System.arraycopy(cells, n * cols, cells, 0, (rows - n) * cols);
+        Arrays.fill(cells, (rows - n) * cols, rows * cols, WALL);
+        walls.shiftUp(n, true);
+        orbs.shiftUp(n, false);
+        powerOrbs.shiftUp(n, false);
+        exits.shiftUp(n, false);
+    }
+    
+    // Bit layer of a cell type, null for EMPTY. Read only - change cells with set()
+    BitLayer layer(byte type) {
+        return switch (type) {
+            case WALL -> walls;
+            case ORB -> orbs;
+            case POWER_ORB -> powerOrbs;
+            case EXIT -> exits;
+            default -> null;
+        };
+    }
+    
+    // Number of cells of the given type, 64 at a time
+    int count(byte type) {
+        BitLayer layer = layer(type);
+        if (layer != null) {
+            return layer.count();
+        }
+        return rows * cols - walls.count() - orbs.count() - powerOrbs.count() - exits.count();
+    }
+    
+    boolean hasOrbs() {
+        return !orbs.isEmpty() || !powerOrbs.isEmpty();
+    }
+    
+    // Every cell that can be walked to from (r, c)
+    BitLayer reachableFrom(int r, int c) {
+        return BitLayer.floodFill(walls.inverted(), r, c);
+    }
+    
+    // Turns every open cell that can't be walked to from (r, c) into wall
+    void wallOffUnreachable(int r, int c) {
+        BitLayer pockets = walls.inverted();
+        pockets.andNot(reachableFrom(r, c));
+        for (int cell = pockets.nextSetCell(0); cell >= 0; cell = pockets.nextSetCell(cell + 1)) {
+            set(cell / cols, cell % cols, WALL);
+        }
+    }
+}
@@ -0,0 +1,746 @@
+package mazeescape;
+
+import java.util.Random;
+
+// The game itself - maze, player, enemies, scoring and the level flow - with no
+// AWT or Swing anywhere. What it does follows only from its seed and the input
+// word passed to each step(): its clock is the sum of the step lengths it's been
+// given, and every delayed action runs on its own game-clock scheduler. The Swing
+// window is one way to drive and draw it; a headless run can step it as fast as
+// the CPU allows (see main).
+final class MazeSimulation {
+    
+    // Input bits. Directions are held for as long as the key is down; commands
+    // are set on the single step after they were pressed
+    static final int UP = 1;
+    static final int DOWN = 1 << 1;
+    static final int LEFT = 1 << 2;
+    static final int RIGHT = 1 << 3;
+    static final int START = 1 << 4;
+    static final int PAUSE = 1 << 5;
+    static final int RESTART = 1 << 6;
+    static final int NEXT_LEVEL = 1 << 7;
+    
+    // Facing of the player sprite
+    static final int FACING_UP = 0;
+    static final int FACING_DOWN = 1;
+    static final int FACING_LEFT = 2;
+    static final int FACING_RIGHT = 3;
+    
+    // Told about things a renderer can't work out from the state alone; called on
+    // the thread calling step()
+    interface Listener {
+        default void orbEaten(int r, int c, boolean power) {
+        }
+        
+        default void gameReset() {
+        }
+    }
+    
+    // Game configuration
+    static final int DEFAULT_ROWS = 15;
+    static final int DEFAULT_COLS = 19;
+    static final int CELL_SIZE = 28; // positions are measured in these units, one cell wide
+    static final int INITIAL_LIVES = 3;
+    static final int LEVELS = 3;
+    static final int[] LEVEL_TIMES = {120, 90, 60};
+    static final int FLASH_DISTANCE = 4;
+    static final double PLAYER_SPEED = 4.0;
+    // Longest player move checked against the walls at once: under a cell, so it
+    // can't step over one
+    private static final double MAX_SUBSTEP = CELL_SIZE / 2.0;
+    // Player positions are kept to 1/POSITION_STEPS of a unit, so the rounding in
+    // a sum of many short moves can't leave the player in a different cell than the
+    // same distance in a few long ones
+    private static final double POSITION_STEPS = 1024;
+    // The player is a cell-sized box from its top-left corner (x, y); this is its
+    // far edge, the last position inside it, so a box exactly on a cell doesn't
+    // reach into the next one
+    private static final double BOX_EDGE = CELL_SIZE - 1 / POSITION_STEPS;
+    private static final double ENEMY_BASE_SPEED = 0.5;
+    private static final double ENEMY_SPEED_INCREMENT = 0.1;
+    private static final int POWER_FREEZE_MS = 8000;
+    private static final int COMBO_TIMEOUT_MS = 2000;
+    private static final int NORMAL_ORB_SCORE = 10;
+    private static final int POWER_ORB_SCORE = 50;
+    private static final int ESCAPE_BONUS = 200;
+    private static final int ENEMY_COUNT = Integer.getInteger("maze.enemies", 1); // on level 1
+    private static final int ENEMIES_PER_LEVEL = Integer.getInteger("maze.enemiesPerLevel", 1);
+    static final int MIN_SPAWN_DISTANCE = 2 * FLASH_DISTANCE; // extra enemies spawn at least this far away
+    static final int CHASE_RADIUS = Integer.getInteger("maze.chaseRadius", 256); // enemies further away by path stand still
+    static final String GENERATOR = System.getProperty("maze.generator", "eller"); // eller or scatter
+    static final double BRAID = Double.parseDouble(System.getProperty("maze.braid", "1")); // share of dead ends opened up
+    
+    // Endless mode - one maze that goes on downwards, generated as the player goes
+    static final boolean ENDLESS = Boolean.getBoolean("maze.endless");
+    private static final int CHUNKS_BEHIND = Integer.getInteger("maze.chunksBehind", 2); // kept above the player's chunk
+    private static final int DEPTH_BONUS = 50; // for each chunk deeper than ever before
+    private static final int DEPTH_TIME_BONUS = 20; // seconds, likewise
+    private static final int[] NO_EXIT = {-1, -1};
+    
+    // Game state
+    private final int rows;
+    private final int cols;
+    private final Random rand;
+    private final LevelPool levels; // fixed levels, laid out ahead; null in endless mode
+    private int level = 1;
+    private int score = 0;
+    private int lives = INITIAL_LIVES;
+    private volatile MazeGrid maze;
+    private EndlessMaze endless; // in endless mode, the window maze is the grid of
+    private volatile long rowOffset = 0; // world row of the maze's top row
+    private long deepestChunk;
+    private int[] chunkCells = new int[0]; // scratch for every chunk's orb and enemy cells
+    private volatile Player player;
+    private final EnemySwarm enemies;
+    private FlowField flowField; // one for the game, rebuilt for every level
+    private int orbsLeft = 0;
+    private double timer;
+    private boolean levelRunning = false;
+    private boolean paused = false;
+    private volatile int[] realExit;
+    private volatile boolean enemyNear = false;
+    private boolean gameOver = false;
+    private volatile int combo = 0;
+    private int enemyMoves = 0; // in the current step, for the tick event
+    private long lastOrbTime = 0; // game clock, ms
+    private volatile boolean started = false;
+    private volatile int facing = FACING_RIGHT;
+    private volatile String message = "";
+    private Listener listener = new Listener() {
+    };
+    
+    // Delayed actions, run against the game clock
+    private final EventScheduler events = new EventScheduler();
+    private EventScheduler.Event levelTransition; // pending respawn, level change or new game
+    private EventScheduler.Event messageTimeout;
+    
+    // In endless mode rows is ignored; the board is as high as its window
+    MazeSimulation(long seed, int rows, int cols) {
+        this(seed, ENDLESS ? EndlessMaze.windowRows(CHUNKS_BEHIND) : rows, cols, MazeGenerator.named(GENERATOR, BRAID));
+    }
+    
+    MazeSimulation(long seed, int rows, int cols, MazeGenerator generator) {
+        MazeGrid.checkSize(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.rand = new Random(seed);
+        this.levels = ENDLESS ? null : new LevelPool(LEVELS, rows, cols, generator, rand.nextLong(),
+                LevelPool.DEFAULT_DEPTH);
+        this.enemies = new EnemySwarm(rows, cols);
+        setupLevel(level);
+    }
+    
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+    
+    // One fixed step of dt seconds with the given input bits
+    void step(double dt, int input) {
+        GameEvents.SimulationTick event = new GameEvents.SimulationTick();
+        event.begin();
+        enemyMoves = 0;
+        if ((input & START) != 0) start();
+        if ((input & PAUSE) != 0) togglePause();
+        if ((input & RESTART) != 0) restartLevel();
+        if ((input & NEXT_LEVEL) != 0) skipLevel();
+        
+        events.advance(dt);
+        if (!started) return;
+        
+        player.savePosition();
+        enemies.savePositions();
+        update(dt, input);
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.level = level;
+            event.enemies = enemies.count;
+            event.enemyMoves = enemyMoves;
+            event.commit();
+        }
+    }
+    
+    private long nowMillis() {
+        return (long) (events.now() * 1000);
+    }
+    
+    private void start() {
+        if (started) return;
+        started = true;
+        levelRunning = true;
+        showMessage("Level " + level + " - Collect all orbs!");
+    }
+    
+    private void skipLevel() {
+        if (ENDLESS) return;
+        if (level < LEVELS) {
+            nextLevel();
+        } else {
+            showMessage("Congratulations! You completed all levels!");
+            newGame();
+        }
+    }
+    
+    // State for the renderer and the HUD. They read it from other threads while
+    // the game steps, so what they show can be a step behind
+    boolean isStarted() {
+        return started;
+    }
+    
+    boolean isPaused() {
+        return paused;
+    }
+    
+    boolean isGameOver() {
+        return gameOver;
+    }
+    
+    int getLevel() {
+        return level;
+    }
+    
+    int getScore() {
+        return score;
+    }
+    
+    int getLives() {
+        return lives;
+    }
+    
+    int getOrbsLeft() {
+        return orbsLeft;
+    }
+    
+    int getCombo() {
+        return combo;
+    }
+    
+    double getTimeLeft() {
+        return timer;
+    }
+    
+    double getLevelTime() {
+        return LEVEL_TIMES[Math.min(level - 1, LEVEL_TIMES.length - 1)];
+    }
+    
+    // For tools that hold a level still, like the allocation check
+    void setTimeLeft(double seconds) {
+        timer = seconds;
+    }
+    
+    String getMessage() {
+        return message;
+    }
+    
+    MazeGrid getMaze() {
+        return maze;
+    }
+    
+    Player getPlayer() {
+        return player;
+    }
+    
+    EnemySwarm getEnemies() {
+        return enemies;
+    }
+    
+    // World row of the board's top row; changes when an endless maze moves on
+    long getRowOffset() {
+        return rowOffset;
+    }
+    
+    int[] getRealExit() {
+        return realExit;
+    }
+    
+    boolean isEnemyNear() {
+        return enemyNear;
+    }
+    
+    int getFacing() {
+        return facing;
+    }
+    
+    // Game clock in seconds
+    double getTime() {
+        return events.now();
+    }
+    
+    private void setupLevel(int level) {
+        this.level = level;
+        this.timer = LEVEL_TIMES[Math.min(level - 1, LEVEL_TIMES.length - 1)];
+        this.levelRunning = false;
+        this.combo = 0;
+        
+        // Whatever was about to replace this level is stale now
+        cancelLevelTransition();
+        this.lastOrbTime = 0;
+        
+        if (ENDLESS) {
+            setupEndless();
+            return;
+        }
+        
+        // Swap in the next layout of this level, laid out in the background
+        LevelLayout layout = levels.take(level);
+        maze = layout.maze;
+        player = new Player(layout.playerCol * CELL_SIZE, layout.playerRow * CELL_SIZE);
+        if (flowField == null) {
+            flowField = new FlowField(rows, cols, CHASE_RADIUS);
+        }
+        flowField.invalidate();
+        flowField.update(maze, player.row, player.col);
+        enemies.reset(layout.enemyCells.length, ENEMY_BASE_SPEED + (level - 1) * ENEMY_SPEED_INCREMENT);
+        for (int cell : layout.enemyCells) {
+            enemies.add(cell / cols, cell % cols);
+        }
+        orbsLeft = layout.orbs;
+        realExit = layout.realExit;
+    }
+    
+    // Enemies on a fixed level: more on each one
+    static int enemyCount(int level) {
+        return ENEMY_COUNT + (level - 1) * ENEMIES_PER_LEVEL;
+    }
+    
+    // A new endless maze: the player starts in the top chunk, which gets no enemies
+    private void setupEndless() {
+        endless = new EndlessMaze(cols, CHUNKS_BEHIND, BRAID, rand);
+        maze = endless.getGrid();
+        rowOffset = 0;
+        deepestChunk = 0;
+        
+        int startRow = EndlessMaze.CHUNK_ROWS / 2;
+        int startCol = cols / 2;
+        for (int r = startRow - 2; r <= startRow + 2; r++) {
+            for (int c = Math.max(1, startCol - 2); c <= Math.min(cols - 2, startCol + 2); c++) {
+                maze.set(r, c, MazeGrid.EMPTY);
+            }
+        }
+        player = new Player(startCol * CELL_SIZE, startRow * CELL_SIZE);
+        if (flowField == null) {
+            flowField = new FlowField(rows, cols, CHASE_RADIUS);
+        }
+        flowField.invalidate();
+        flowField.update(maze, player.row, player.col);
+        
+        // Room for as many enemies as the window can hold
+        enemies.reset(rows / EndlessMaze.CHUNK_ROWS * ENEMY_COUNT, ENEMY_BASE_SPEED);
+        if (chunkCells.length < EndlessMaze.CHUNK_ROWS * cols) {
+            chunkCells = new int[EndlessMaze.CHUNK_ROWS * cols];
+        }
+        for (int top = 0; top < rows; top += EndlessMaze.CHUNK_ROWS) {
+            fillChunk(top, top > 0);
+        }
+        orbsLeft = maze.count(MazeGrid.ORB) + maze.count(MazeGrid.POWER_ORB);
+        realExit = NO_EXIT;
+    }
+    
+    // Orbs, and enemies if withEnemies, for the chunk of the endless maze starting at row top.
+    // Enemies go on open cells of the chunk no enemy has wandered onto yet, picked the
+    // way placeOrbs picks orbs: one selection-sampling pass over the list of those
+    // cells, so each enemy is placed without retries. Only a chunk with fewer free
+    // cells than enemies, or a swarm already full, places fewer - the shortfall goes
+    // on the chunk's JFR event
+    private void fillChunk(int top, boolean withEnemies) {
+        GameEvents.ChunkGenerated event = new GameEvents.ChunkGenerated();
+        event.begin();
+        int bottom = top + EndlessMaze.CHUNK_ROWS;
+        LevelLayout.placeOrbs(maze, top, bottom, EndlessMaze.CHUNK_ROWS * cols / 6, rand, chunkCells);
+        
+        int placed = 0;
+        int missing = 0;
+        if (withEnemies) {
+            int free = 0;
+            for (int r = top; r < bottom; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (!maze.isWall(r, c) && !enemies.anyAt(r, c)) {
+                        chunkCells[free++] = maze.index(r, c);
+                    }
+                }
+            }
+            int toPlace = Math.min(Math.min(ENEMY_COUNT, enemies.capacity() - enemies.count), free);
+            missing = ENEMY_COUNT - toPlace;
+            for (int i = 0; i < free && placed < toPlace; i++) {
+                if (rand.nextInt(free - i) >= toPlace - placed) continue;
+                enemies.add(chunkCells[i] / cols, chunkCells[i] % cols);
+                placed++;
+            }
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.chunk = (rowOffset + top) / EndlessMaze.CHUNK_ROWS;
+            event.enemies = placed;
+            event.enemiesMissing = missing;
+            event.commit();
+        }
+    }
+    
+    // Endless mode, once per step: lays out one more row of the chunk ahead, and
+    // moves the window on by a chunk once the player is deep enough into it. Both
+    // are bounded by the board width, so no step ever stalls on generation
+    private void advanceEndless() {
+        if (endless.generate()) {
+            int top = rows - EndlessMaze.CHUNK_ROWS;
+            fillChunk(top, true);
+            orbsLeft = maze.count(MazeGrid.ORB) + maze.count(MazeGrid.POWER_ORB);
+        }
+        if (endless.shouldShift(player.row)) {
+            while (!endless.isComplete()) {
+                // Only if the player outran generation - not at any speed the game allows
+                advanceEndless();
+            }
+            endless.shift();
+            rowOffset = endless.getRowOffset();
+            player.shiftUp(EndlessMaze.CHUNK_ROWS);
+            enemies.shiftUp(EndlessMaze.CHUNK_ROWS);
+            flowField.invalidate();
+            orbsLeft = maze.count(MazeGrid.ORB) + maze.count(MazeGrid.POWER_ORB);
+        }
+        
+        long chunk = (rowOffset + player.row) / EndlessMaze.CHUNK_ROWS;
+        if (chunk > deepestChunk) {
+            deepestChunk = chunk;
+            score += DEPTH_BONUS;
+            timer += DEPTH_TIME_BONUS;
+            showMessage("Depth " + chunk + "! +" + DEPTH_BONUS + " points, +" + DEPTH_TIME_BONUS + " s");
+        }
+    }
+    
+    // Advances the simulation by exactly one fixed step of deltaTime seconds
+    private void update(double deltaTime, int input) {
+        if (!levelRunning || paused || gameOver) return;
+        
+        long now = nowMillis();
+        
+        // Update timer
+        timer -= deltaTime;
+        if (timer <= 0) {
+            timer = 0;
+            loseLife("Time's up!");
+            // Nothing else moves this step, so a catch can't cost a second life
+            return;
+        }
+        
+        // Update player - FIXED to stop when keys are released
+        updatePlayer(deltaTime, input);
+        
+        // Update enemy
+        updateEnemy(deltaTime);
+        
+        // Check collisions
+        checkCollisions();
+        
+        if (endless != null) {
+            advanceEndless();
+        }
+        
+        // Update combo
+        if (now - lastOrbTime > COMBO_TIMEOUT_MS) {
+            combo = 0;
+        }
+    }
+    
+    // FIXED Player movement to stop when keys are released
+    private void updatePlayer(double deltaTime, int input) {
+        double dx = 0, dy = 0;
+        
+        // Only move while a direction is held
+        if ((input & UP) != 0) {
+            dy = -PLAYER_SPEED;
+            facing = FACING_UP;
+        } else if ((input & DOWN) != 0) {
+            dy = PLAYER_SPEED;
+            facing = FACING_DOWN;
+        } else if ((input & LEFT) != 0) {
+            dx = -PLAYER_SPEED;
+            facing = FACING_LEFT;
+        } else if ((input & RIGHT) != 0) {
+            dx = PLAYER_SPEED;
+            facing = FACING_RIGHT;
+        }
+        // If no movement keys are pressed, dx and dy remain 0 (player stops)
+        if (dx == 0 && dy == 0) return;
+        
+        // Swept in sub-steps of at most half a cell, so a long step - a low tick
+        // rate, or a big dt headless - can't pass through a wall. A blocked sub-step
+        // still goes up to the wall and spends what's left lining up with a side
+        // passage, so where the player ends up doesn't depend on the tick rate.
+        // Sub-steps are whole MAX_SUBSTEPs and then what's left, the same exact
+        // lengths whatever the step is cut from
+        int moveRow = (int) Math.signum(dy);
+        int moveCol = (int) Math.signum(dx);
+        double distance = Math.rint(Math.abs(dx + dy) * deltaTime * 60 * POSITION_STEPS) / POSITION_STEPS; // Scale for 60 FPS
+        while (distance > 0) {
+            double moved = movePlayer(moveRow, moveCol, Math.min(distance, MAX_SUBSTEP));
+            if (moved == 0) break;
+            distance -= moved;
+        }
+    }
+    
+    // Moves the player by step along (moveRow, moveCol) and returns how far it
+    // went, 0 once it can't go on. Both corners on the box's leading edge are
+    // checked, so no part of the player goes into a wall or off the board. When
+    // one of them is blocked the player goes up to the wall; then, if just one
+    // of the two cells ahead is open - a turn taken a little early or late - it
+    // slides across with the rest of the step to line up with it, and the next
+    // sub-step goes on through. A sub-step is under a cell, so the wall is in the
+    // next row or column
+    private double movePlayer(int moveRow, int moveCol, double step) {
+        double newX = Math.rint((player.x + moveCol * step) * POSITION_STEPS) / POSITION_STEPS;
+        double newY = Math.rint((player.y + moveRow * step) * POSITION_STEPS) / POSITION_STEPS;
+        // The row or column the leading edge is in, and the two cells of it the box covers
+        int ahead = (int) Math.floor(moveCol != 0 ? (moveCol > 0 ? newX + BOX_EDGE : newX) / CELL_SIZE
+                : (moveRow > 0 ? newY + BOX_EDGE : newY) / CELL_SIZE);
+        double across = moveCol != 0 ? newY : newX;
+        int first = (int) Math.floor(across / CELL_SIZE);
+        int second = (int) Math.floor((across + BOX_EDGE) / CELL_SIZE);
+        boolean firstOpen = moveCol != 0 ? !maze.isWall(first, ahead) : !maze.isWall(ahead, first);
+        boolean secondOpen = moveCol != 0 ? !maze.isWall(second, ahead) : !maze.isWall(ahead, second);
+        if (firstOpen && secondOpen) {
+            placePlayer(newX, newY);
+            return step;
+        }
+        
+        // Up against the wall: the box's edge on the last open row or column
+        double stop = (ahead - Math.max(moveRow + moveCol, 0)) * CELL_SIZE + (moveRow + moveCol < 0 ? CELL_SIZE : 0);
+        double moved = moveCol != 0 ? Math.abs(stop - player.x) : Math.abs(stop - player.y);
+        double slide = 0;
+        if (firstOpen != secondOpen) {
+            double line = (firstOpen ? first : second) * CELL_SIZE;
+            slide = Math.copySign(Math.min(Math.abs(line - across), step - moved), line - across);
+        }
+        if (moveCol != 0) {
+            placePlayer(stop, across + slide);
+        } else {
+            placePlayer(across + slide, stop);
+        }
+        return moved + Math.abs(slide);
+    }
+    
+    private void placePlayer(double x, double y) {
+        player.x = x;
+        player.y = y;
+        player.row = (int) Math.floor(y / CELL_SIZE);
+        player.col = (int) Math.floor(x / CELL_SIZE);
+    }
+    
+    void updateEnemy(double deltaTime) {
+        // Distances to the player - only recomputed when the player changes cell
+        flowField.update(maze, player.row, player.col);
+        
+        // Every enemy that isn't frozen follows the shortest path towards the player
+        enemyMoves = enemies.step(deltaTime, flowField, FLASH_DISTANCE, nowMillis());
+        
+        // Check proximity to player by path length, looking only at nearby cells
+        enemyNear = enemies.anyWithin(flowField, player.row, player.col, FLASH_DISTANCE);
+    }
+    
+    void checkCollisions() {
+        // Check orb collection
+        switch (maze.get(player.row, player.col)) {
+            case MazeGrid.ORB:
+                maze.set(player.row, player.col, MazeGrid.EMPTY);
+                listener.orbEaten(player.row, player.col, false);
+                orbsLeft--;
+                combo++;
+                int baseScore = NORMAL_ORB_SCORE;
+                int comboBonus = (combo - 1) * 5;
+                score += baseScore + comboBonus;
+                lastOrbTime = nowMillis();
+                orbCollected(false);
+                if (orbsLeft == 0 && !ENDLESS) {
+                    showMessage("All orbs collected! Find the exit!");
+                }
+                break;
+            case MazeGrid.POWER_ORB:
+                maze.set(player.row, player.col, MazeGrid.EMPTY);
+                listener.orbEaten(player.row, player.col, true);
+                orbsLeft--;
+                score += POWER_ORB_SCORE;
+                enemies.freezeAll(nowMillis() + POWER_FREEZE_MS);
+                combo = 0;
+                orbCollected(true);
+                showMessage("Enemy frozen for " + (POWER_FREEZE_MS/1000) + " seconds!");
+                break;
+            case MazeGrid.EXIT:
+                // Check if it's the real exit
+                if (orbsLeft <= 0 && player.row == realExit[0] && player.col == realExit[1]) {
+                    score += ESCAPE_BONUS;
+                    if (level < LEVELS) {
+                        showMessage("Level " + level + " completed! +" + ESCAPE_BONUS + " points!");
+                        nextLevel();
+                    } else {
+                        showMessage("Congratulations! You completed all levels!");
+                        gameOver = true;
+                    }
+                } else if (orbsLeft > 0) {
+                    showMessage("Collect all orbs first!");
+                }
+                break;
+            default:
+                break;
+        }
+        
+        // Check enemy collision
+        if (enemies.anyAt(player.row, player.col)) {
+            loseLife("Caught by enemy!");
+        }
+    }
+    
+    private void orbCollected(boolean power) {
+        GameEvents.OrbCollected event = new GameEvents.OrbCollected();
+        if (event.shouldCommit()) {
+            event.row = player.row;
+            event.col = player.col;
+            event.power = power;
+            event.combo = combo;
+            event.score = score;
+            event.commit();
+        }
+    }
+    
+    private void loseLife(String reason) {
+        lives--;
+        GameEvents.LifeLost event = new GameEvents.LifeLost();
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.level = level;
+            event.livesLeft = lives;
+            event.commit();
+        }
+        combo = 0;
+        // Hold the level still until the respawn so the same hit can't cost another life
+        levelRunning = false;
+        
+        if (lives <= 0) {
+            gameOver = true;
+            showMessage("Game Over! Final Score: " + score);
+            scheduleLevelTransition(3.0, this::newGame);
+        } else {
+            showMessage(reason + " Lives remaining: " + lives);
+            scheduleLevelTransition(1.0, this::restartLevel);
+        }
+    }
+    
+    private void nextLevel() {
+        levelRunning = false;
+        level++;
+        if (level > LEVELS) level = 1;
+        
+        scheduleLevelTransition(1.0, this::restartLevel);
+    }
+    
+    // Only one transition can be pending; a newer one replaces the old
+    private void scheduleLevelTransition(double delaySeconds, Runnable action) {
+        cancelLevelTransition();
+        levelTransition = events.schedule(delaySeconds, action);
+    }
+    
+    private void cancelLevelTransition() {
+        if (levelTransition != null) {
+            levelTransition.cancel();
+            levelTransition = null;
+        }
+    }
+    
+    private void restartLevel() {
+        setupLevel(level);
+        levelRunning = true;
+    }
+    
+    private void newGame() {
+        level = 1;
+        score = 0;
+        lives = INITIAL_LIVES;
+        gameOver = false;
+        paused = false;
+        events.setPaused(false);
+        setupLevel(level);
+        started = false;
+        listener.gameReset();
+    }
+    
+    private void togglePause() {
+        if (!started) return;
+        
+        // Pausing stops the game clock too, so pending respawns and level changes wait
+        paused = !paused;
+        events.setPaused(paused);
+        showMessage(paused ? "Game paused! Press SPACE to continue." : "Game resumed!");
+    }
+    
+    private void showMessage(String message) {
+        this.message = message;
+        if (messageTimeout != null) {
+            messageTimeout.cancel();
+        }
+        messageTimeout = events.schedule(3.0, () -> this.message = "");
+    }
+    
+    // Player with Pac-Man style movement
+    static final class Player {
+        double x, y;
+        double prevX, prevY; // position at the start of the current step
+        int row, col;
+        
+        Player(double x, double y) {
+            this.x = this.prevX = x;
+            this.y = this.prevY = y;
+            this.row = (int) (y / CELL_SIZE);
+            this.col = (int) (x / CELL_SIZE);
+        }
+        
+        void savePosition() {
+            prevX = x;
+            prevY = y;
+        }
+        
+        // Follows the board as it scrolls up by n rows
+        void shiftUp(int n) {
+            y -= n * CELL_SIZE;
+            prevY -= n * CELL_SIZE;
+            row -= n;
+        }
+        
+        double renderX(double alpha) {
+            return prevX + (x - prevX) * alpha;
+        }
+        
+        double renderY(double alpha) {
+            return prevY + (y - prevY) * alpha;
+        }
+    }
+    
+    // Headless run fed a random held direction that changes every half second,
+    // pressing START again whenever a game ends:
+    //   java -cp target/classes mazeescape.MazeSimulation [seed] [game seconds]
+    // The same seed always plays out the same way. Prints the final state and how
+    // much faster than real time it ran
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3600;
+        int tickRate = GameLoop.DEFAULT_TICK_RATE;
+        double dt = 1.0 / tickRate;
+        long steps = (long) (seconds * tickRate);
+        
+        MazeSimulation game = new MazeSimulation(seed, Integer.getInteger("maze.rows", DEFAULT_ROWS),
+                Integer.getInteger("maze.cols", DEFAULT_COLS));
+        Random inputs = new Random(seed);
+        int held = 0;
+        long start = System.nanoTime();
+        for (long i = 0; i < steps; i++) {
+            if (i % (tickRate / 2) == 0) {
+                held = 1 << inputs.nextInt(4);
+            }
+            game.step(dt, game.isStarted() ? held : START);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        
+        System.out.printf("Simulated %.0f s of play in %.2f s (%.0fx real time)%n", seconds, elapsed, seconds / elapsed);
+        System.out.printf("Level %d, score %d, lives %d, orbs left %d, player at (%d, %d)%n", game.level, game.score,
+                game.lives, game.orbsLeft, game.player.row, game.player.col);
+    }
+}
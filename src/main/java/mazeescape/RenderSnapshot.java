@@ -0,0 +1,128 @@
+package mazeescape;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Everything GameView paints, as it stood at one frame: the board tiles to copy,
+// sprite positions already interpolated, the camera and the overlays. The game
+// loop fills one in per frame and publishes it; the EDT paints from the latest
+// one published and never reads the simulation, so a paint can't catch a step
+// half done, a level half set up or the enemy arrays mid-resize.
+final class RenderSnapshot {
+    
+    // Which sprite an enemy is drawn with
+    static final byte ENEMY = 0;
+    static final byte ENEMY_NEAR = 1;
+    static final byte ENEMY_FROZEN = 2;
+    
+    // Board tiles as GameView.MazeLayer left them for this frame: the image in each
+    // slot and the maze tile drawn into it, -1 if none. The loop never draws into
+    // an image again while a snapshot the reader has or can still take shows it
+    long topTileRow; // maze tile row the board's tiles were counted from
+    int tileSlotRows, tileSlotCols;
+    int tileStride; // tiles across one row of the maze
+    int boardWidth, boardHeight;
+    int tileCount = 0;
+    BufferedImage[] tiles = new BufferedImage[0];
+    long[] tileIds = new long[0];
+    int cellsDrawn; // board cells drawn into tiles for this frame
+    int cameraX, cameraY;
+    int playerX, playerY;
+    int facing;
+    int enemyCount = 0;
+    int[] enemyX = new int[0];
+    int[] enemyY = new int[0];
+    byte[] enemySprite = new byte[0];
+    boolean exitLit; // the real exit, at exitRow/exitCol, lights up under the player
+    int exitRow, exitCol;
+    boolean enemyNear;
+    int combo;
+    String[] timings; // the frame timings overlay, null while it's hidden
+    int hintLength = 0; // cells on the path hint, none while it's hidden
+    int[] hintPath = new int[0]; // as r * hintCols + c, from the player's next cell on
+    int hintCols;
+    
+    // Grows the enemy arrays on the writing side; only allocates when a level
+    // brings more enemies than this snapshot has held before
+    void setEnemyCount(int count) {
+        if (enemyX.length < count) {
+            enemyX = Arrays.copyOf(enemyX, count);
+            enemyY = Arrays.copyOf(enemyY, count);
+            enemySprite = Arrays.copyOf(enemySprite, count);
+        }
+        enemyCount = count;
+    }
+    
+    // Copies the path hint in, growing the array the same way
+    void setHint(int[] path, int length, int cols) {
+        if (hintPath.length < length) {
+            hintPath = Arrays.copyOf(hintPath, Math.max(length, hintPath.length * 2));
+        }
+        System.arraycopy(path, 0, hintPath, 0, length);
+        hintLength = length;
+        hintCols = cols;
+    }
+    
+    // Copies the tile table in; only allocates when the board has more slots than
+    // any before. Slots past count are cleared, so an image the layer dropped
+    // isn't kept shown
+    void setTiles(BufferedImage[] images, long[] ids, int count) {
+        if (tiles.length < count) {
+            tiles = new BufferedImage[count];
+            tileIds = new long[count];
+        }
+        System.arraycopy(images, 0, tiles, 0, count);
+        System.arraycopy(ids, 0, tileIds, 0, count);
+        Arrays.fill(tiles, count, tiles.length, null);
+        tileCount = count;
+    }
+    
+    // Three pooled snapshots handed between one writer and one reader without locks
+    // or allocation. The writer has one to fill, the reader one to paint from, and
+    // the third sits in between as the latest published. Both sides swap theirs for
+    // the one in between with a single getAndSet, so neither ever sees a snapshot
+    // the other is still using. The reader only swaps when something new was
+    // published, and otherwise keeps painting the one it has.
+    static final class Exchange {
+        
+        private static final int FRESH = 4; // set while the one in between is unread
+        
+        private final RenderSnapshot[] snapshots = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+        private final AtomicInteger between = new AtomicInteger(1);
+        private int writing = 0; // writer's own
+        private int reading = 2; // reader's own
+        
+        // Writer: the snapshot to fill in for the next publish()
+        RenderSnapshot back() {
+            return snapshots[writing];
+        }
+        
+        // Writer: makes the filled-in snapshot the latest, and takes the one in
+        // between back to fill next time
+        void publish() {
+            writing = between.getAndSet(writing | FRESH) & ~FRESH;
+        }
+        
+        // Writer: whether the snapshot in between or the reader's own shows the tile
+        // image, so drawing into it could show up in a paint. The writer filled in
+        // both tables itself, so it reads them without a fence
+        boolean tileShown(BufferedImage tile) {
+            for (int i = 0; i < snapshots.length; i++) {
+                if (i == writing) continue;
+                for (BufferedImage shown : snapshots[i].tiles) {
+                    if (shown == tile) return true;
+                }
+            }
+            return false;
+        }
+        
+        // Reader: the latest snapshot published; stays the same until the next call
+        RenderSnapshot latest() {
+            if ((between.get() & FRESH) != 0) {
+                reading = between.getAndSet(reading) & ~FRESH;
+            }
+            return snapshots[reading];
+        }
+    }
+}
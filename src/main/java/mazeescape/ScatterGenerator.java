@@ -0,0 +1,55 @@
+package mazeescape;
+
+import java.util.random.RandomGenerator;
+
+// The original open layout: a grid of paths on the even rows and columns, most of
+// their links, and then about 60% of all remaining cells opened at random. Random
+// opening can leave pockets nothing leads into, so those are walled back in.
+final class ScatterGenerator implements MazeGenerator {
+    
+    @Override
+    public MazeGrid generate(int rows, int cols, RandomGenerator rand) {
+        MazeGrid maze = new MazeGrid(rows, cols);
+        
+        // Fill with walls
+        maze.fill(MazeGrid.WALL);
+        
+        // Create border
+        for (int r = 0; r < rows; r++) {
+            maze.set(r, 0, MazeGrid.EMPTY);
+            maze.set(r, cols - 1, MazeGrid.EMPTY);
+        }
+        maze.fillRow(0, MazeGrid.EMPTY);
+        maze.fillRow(rows - 1, MazeGrid.EMPTY);
+        
+        // Create main paths
+        for (int r = 2; r < rows - 2; r += 2) {
+            for (int c = 2; c < cols - 2; c += 2) {
+                maze.set(r, c, MazeGrid.EMPTY);
+                
+                // Create horizontal paths - higher chance
+                if (c < cols - 3 && rand.nextDouble() > 0.1) {
+                    maze.set(r, c + 1, MazeGrid.EMPTY);
+                }
+                
+                // Create vertical paths - higher chance
+                if (r < rows - 3 && rand.nextDouble() > 0.1) {
+                    maze.set(r + 1, c, MazeGrid.EMPTY);
+                }
+            }
+        }
+        
+        // Create additional paths - much more open
+        for (int r = 1; r < rows - 1; r++) {
+            for (int c = 1; c < cols - 1; c++) {
+                if (rand.nextDouble() > 0.4) {
+                    maze.set(r, c, MazeGrid.EMPTY);
+                }
+            }
+        }
+        
+        // Everything open has to hang together with the border ring
+        maze.wallOffUnreachable(0, 0);
+        return maze;
+    }
+}
@@ -0,0 +1,314 @@
+package mazeescape;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+
+// A played session as a file: the seed, board size, tick rate and every -Dmaze.*
+// property the game ran with, then the input word of every step. A word is held
+// for a run of steps, so the steps are stored as runs - a varint step count and
+// the new word XORed with the one before - which comes to a couple of bytes per
+// key press or release, however long the keys are held. The simulation follows
+// from nothing else, so that's enough to play the session again exactly; main
+// does that headless, as fast as the CPU allows:
+//   java -cp target/classes mazeescape.SessionRecording <recording>...
+// The step count, score, level and lives at the end are stored as well and checked
+// on replay, so a folder of recordings doubles as a regression corpus.
+final class SessionRecording {
+    
+    private static final int MAGIC = 0x4D5A5243; // "MZRC"
+    private static final byte VERSION = 1;
+    private static final int END_OF_INPUT = 0; // a run of no steps; the final state follows
+    private static final String PROPERTY_PREFIX = "maze.";
+    
+    private SessionRecording() {
+    }
+    
+    // The recorder for a window session, writing to a new file in -Dmaze.recordDir
+    // (recordings by default; empty turns recording off). Null if off or the file
+    // can't be created - the game runs the same either way
+    static Recorder startRecording(long seed, int rows, int cols, int tickRate) {
+        String dir = System.getProperty("maze.recordDir", "recordings");
+        if (dir.isEmpty()) return null;
+        String name = "session-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + "-"
+                + seed + ".mzr";
+        try {
+            Files.createDirectories(Path.of(dir));
+            return new Recorder(Path.of(dir, name), seed, rows, cols, tickRate);
+        } catch (IOException e) {
+            System.err.println("Not recording this session: " + e);
+            return null;
+        }
+    }
+    
+    // Writes the input of one session, step by step, through a buffered channel
+    static final class Recorder implements AutoCloseable {
+        
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+        private int value = 0; // input of the current run
+        private int run = 0; // steps in it so far
+        private int written = 0; // input of the last run written, which the next is XORed with
+        private long steps = 0;
+        private int score;
+        private int level;
+        private int lives;
+        private boolean closed = false;
+        
+        Recorder(Path file, long seed, int rows, int cols, int tickRate) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).put(VERSION).putLong(seed).putInt(rows).putInt(cols).putInt(tickRate);
+            Map<String, String> properties = mazeProperties();
+            buffer.putInt(properties.size());
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                putString(property.getKey());
+                putString(property.getValue());
+            }
+        }
+        
+        // Once per step on the game loop thread, with the input the step was given
+        // and the game as it left it. Doesn't allocate
+        synchronized void record(int input, MazeSimulation game) {
+            if (closed) return;
+            if (run > 0 && (input != value || run == Integer.MAX_VALUE)) {
+                writeRun();
+            }
+            if (run == 0) {
+                value = input;
+            }
+            run++;
+            steps++;
+            score = game.getScore();
+            level = game.getLevel();
+            lives = game.getLives();
+        }
+        
+        // Writes out what's pending and the final state; safe to call more than once
+        // and from any thread, e.g. a shutdown hook
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            try {
+                if (run > 0) {
+                    writeRun();
+                }
+                ensureRoom(5 + 8 + 3 * 4);
+                putVarint(END_OF_INPUT);
+                buffer.putLong(steps).putInt(score).putInt(level).putInt(lives);
+                flush();
+            } catch (IOException e) {
+                System.err.println("Recording incomplete: " + e);
+            } finally {
+                closed = true;
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Nothing more to lose
+                }
+            }
+        }
+        
+        private void writeRun() {
+            try {
+                ensureRoom(5 + 1);
+                putVarint(run);
+                buffer.put((byte) (value ^ written));
+                written = value;
+                run = 0;
+            } catch (IOException e) {
+                // Stop recording but keep the game going
+                System.err.println("Recording stopped: " + e);
+                closed = true;
+            }
+        }
+        
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        private void putVarint(int n) {
+            while ((n & ~0x7F) != 0) {
+                buffer.put((byte) ((n & 0x7F) | 0x80));
+                n >>>= 7;
+            }
+            buffer.put((byte) n);
+        }
+        
+        private void putString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+    }
+    
+    // A recording read back, handing out its inputs one step at a time
+    static final class Replay {
+        
+        final long seed;
+        final int rows;
+        final int cols;
+        final int tickRate;
+        final Map<String, String> properties = new TreeMap<>();
+        private final ByteBuffer data;
+        private int value = 0;
+        private int run = 0;
+        private boolean ended = false;
+        private boolean finished = false; // the final state was recorded
+        private long steps;
+        private int score;
+        private int level;
+        private int lives;
+        
+        Replay(Path file) throws IOException {
+            data = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (data.remaining() < 4 || data.getInt() != MAGIC) {
+                throw new IOException(file + " isn't a session recording");
+            }
+            byte version = data.get();
+            if (version != VERSION) {
+                throw new IOException(file + " is a version " + version + " recording, expected " + VERSION);
+            }
+            seed = data.getLong();
+            rows = data.getInt();
+            cols = data.getInt();
+            tickRate = data.getInt();
+            int count = data.getInt();
+            for (int i = 0; i < count; i++) {
+                properties.put(getString(), getString());
+            }
+        }
+        
+        // The input of the next step, or -1 after the last one. A recording cut
+        // short (the game was killed) plays up to its last complete run
+        int next() {
+            while (run == 0) {
+                if (ended) return -1;
+                readRun();
+            }
+            run--;
+            return value;
+        }
+        
+        private void readRun() {
+            int n = 0;
+            int shift = 0;
+            while (true) {
+                if (!data.hasRemaining() || shift > 28) {
+                    ended = true;
+                    return;
+                }
+                byte b = data.get();
+                n |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+                shift += 7;
+            }
+            if (n == END_OF_INPUT) {
+                ended = true;
+                if (data.remaining() >= 8 + 3 * 4) {
+                    steps = data.getLong();
+                    score = data.getInt();
+                    level = data.getInt();
+                    lives = data.getInt();
+                    finished = true;
+                }
+                return;
+            }
+            if (!data.hasRemaining()) {
+                ended = true;
+                return;
+            }
+            value ^= data.get() & 0xFF;
+            run = n;
+        }
+        
+        private String getString() {
+            byte[] bytes = new byte[data.getShort() & 0xFFFF];
+            data.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static Map<String, String> mazeProperties() {
+        Map<String, String> properties = new TreeMap<>();
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(PROPERTY_PREFIX)) {
+                properties.put(key, System.getProperty(key));
+            }
+        }
+        return properties;
+    }
+    
+    // Replays each recording headless at full speed and checks it ends where the
+    // session did. The game reads its -Dmaze.* properties once, so those of the
+    // first recording are used for the run; recordings made with other ones are
+    // skipped. Exits with 1 if any recording plays out differently
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: java -cp target/classes mazeescape.SessionRecording <recording>...");
+            return;
+        }
+        Map<String, String> applied = null;
+        boolean allMatch = true;
+        long totalSteps = 0;
+        double totalSeconds = 0;
+        for (String arg : args) {
+            Replay replay = new Replay(Path.of(arg));
+            if (applied == null) {
+                // Before MazeSimulation is first touched, so its settings come out the same
+                replay.properties.forEach(System::setProperty);
+                applied = replay.properties;
+            } else if (!applied.equals(replay.properties)) {
+                System.out.println(arg + ": skipped, recorded with other settings " + replay.properties);
+                continue;
+            }
+            
+            MazeSimulation game = new MazeSimulation(replay.seed, replay.rows, replay.cols);
+            double dt = 1.0 / replay.tickRate;
+            long steps = 0;
+            long start = System.nanoTime();
+            for (int input = replay.next(); input >= 0; input = replay.next()) {
+                game.step(dt, input);
+                steps++;
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            totalSteps += steps;
+            totalSeconds += elapsed;
+            
+            System.out.printf("%s: %d steps (%.0f s of play) in %.3f s (%.0fx real time) - level %d, score %d, lives %d%n",
+                    arg, steps, steps * dt, elapsed, steps * dt / elapsed, game.getLevel(), game.getScore(),
+                    game.getLives());
+            if (!replay.finished) {
+                System.out.println("  recording was cut short - no final state to check against");
+            } else if (replay.steps != steps || replay.score != game.getScore() || replay.level != game.getLevel()
+                    || replay.lives != game.getLives()) {
+                System.out.printf("  MISMATCH: the session ended after %d steps on level %d, score %d, lives %d%n",
+                        replay.steps, replay.level, replay.score, replay.lives);
+                allMatch = false;
+            }
+        }
+        if (args.length > 1) {
+            System.out.printf("%d steps in %.3f s (%.0f steps/s)%n", totalSteps, totalSeconds, totalSteps / totalSeconds);
+        }
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package mazeescape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Soak test: plays a large number of whole games with AutoPlayer, headless and in
+// parallel on all cores or the given number of threads, checking the game's
+// invariants after every step:
+//   java -cp target/classes mazeescape.SoakRunner [games] [seed] [threads]
+// Game n is played with seed + n, so any game the report names can be played on
+// its own again with its seed and a count of 1. Board size, generator, tick rate
+// and the rest follow the same -Dmaze.* properties as the game. Prints games and
+// steps per second, how each level went, and every kind of invariant violation
+// seen with the first few games it happened in; exits with 1 if there was any.
+final class SoakRunner {
+    
+    // Any rate works headless, not just the ones the game's loop runs at
+    private static final int TICK_RATE = Integer.getInteger("maze.tickRate", GameLoop.DEFAULT_TICK_RATE);
+    private static final double DT = 1.0 / TICK_RATE;
+    // A game still going after 30 minutes is stuck - unless it's endless, which only
+    // ends when the lives run out; that's where it stops
+    private static final long MAX_STEPS = 30L * 60 * TICK_RATE;
+    private static final int EXAMPLES = 5; // games listed per kind of violation
+    
+    // What one thread has seen over its games
+    private static final class SoakStats {
+        long games = 0;
+        long won = 0;
+        long lost = 0;
+        long stuck = 0;
+        long survived = 0; // endless games still going at MAX_STEPS
+        long steps = 0;
+        final long[] reached = new long[MazeSimulation.LEVELS + 1];
+        final long[] cleared = new long[MazeSimulation.LEVELS + 1];
+        final long[] caught = new long[MazeSimulation.LEVELS + 1];
+        final long[] timedOut = new long[MazeSimulation.LEVELS + 1];
+        final Histogram stepsPerGame = new Histogram();
+        final Map<String, Long> violations = new TreeMap<>();
+        final Map<String, List<String>> examples = new TreeMap<>();
+        
+        SoakStats merge(SoakStats other) {
+            games += other.games;
+            won += other.won;
+            lost += other.lost;
+            stuck += other.stuck;
+            survived += other.survived;
+            steps += other.steps;
+            for (int level = 1; level <= MazeSimulation.LEVELS; level++) {
+                reached[level] += other.reached[level];
+                cleared[level] += other.cleared[level];
+                caught[level] += other.caught[level];
+                timedOut[level] += other.timedOut[level];
+            }
+            stepsPerGame.merge(other.stepsPerGame);
+            other.violations.forEach((kind, count) -> violations.merge(kind, count, Long::sum));
+            other.examples.forEach((kind, games) -> {
+                List<String> list = examples.computeIfAbsent(kind, k -> new ArrayList<>());
+                for (String game : games) {
+                    if (list.size() < EXAMPLES) {
+                        list.add(game);
+                    }
+                }
+            });
+            return this;
+        }
+        
+        void violation(String kind, long seed, long step, String detail) {
+            // Counted once per step, but listed once per game
+            long count = violations.merge(kind, 1L, Long::sum);
+            List<String> list = examples.computeIfAbsent(kind, k -> new ArrayList<>());
+            String game = "seed " + seed;
+            if (list.size() < EXAMPLES && (count == 1 || !list.get(list.size() - 1).startsWith(game + ","))) {
+                list.add(game + ", step " + step + ": " + detail);
+            }
+        }
+    }
+    
+    // One game from START until it's won, lost or stuck
+    static void play(long seed, int rows, int cols, SoakStats stats) {
+        MazeSimulation game = new MazeSimulation(seed, rows, cols);
+        AutoPlayer bot = new AutoPlayer();
+        int level = game.getLevel();
+        int lives = game.getLives();
+        int score = 0;
+        int orbsLeft = -1;
+        MazeGrid maze = null;
+        stats.reached[level]++;
+        
+        long step = 0;
+        while (!game.isGameOver() && step < MAX_STEPS) {
+            game.step(DT, bot.nextInput(game));
+            step++;
+            
+            if (game.getLives() < lives) {
+                // A life lost on the clock leaves it at zero
+                if (game.getTimeLeft() <= 0) {
+                    stats.timedOut[level]++;
+                } else {
+                    stats.caught[level]++;
+                }
+            }
+            if (game.getLevel() != level) {
+                stats.cleared[level]++;
+                level = game.getLevel();
+                stats.reached[level]++;
+            }
+            lives = game.getLives();
+            
+            checkInvariants(game, seed, step, score, stats);
+            score = game.getScore();
+            if (game.getOrbsLeft() != orbsLeft || game.getMaze() != maze) {
+                orbsLeft = game.getOrbsLeft();
+                maze = game.getMaze();
+                checkOrbCount(game, seed, step, stats);
+            }
+        }
+        
+        stats.games++;
+        stats.steps += step;
+        stats.stepsPerGame.add((int) Math.min(Integer.MAX_VALUE, step));
+        if (!game.isGameOver() && MazeSimulation.ENDLESS) {
+            stats.survived++;
+        } else if (!game.isGameOver()) {
+            stats.stuck++;
+            stats.violation("game never ended", seed, step, "still on level " + level + " after "
+                    + MAX_STEPS / TICK_RATE + " s");
+        } else if (game.getLives() > 0) {
+            // The last level was cleared; the level number stays where it was
+            stats.won++;
+            stats.cleared[level]++;
+        } else {
+            stats.lost++;
+        }
+    }
+    
+    // Cheap checks, after every step
+    private static void checkInvariants(MazeSimulation game, long seed, long step, int lastScore, SoakStats stats) {
+        MazeGrid maze = game.getMaze();
+        MazeSimulation.Player player = game.getPlayer();
+        if (game.getOrbsLeft() < 0) {
+            stats.violation("orbs left negative", seed, step, "orbsLeft " + game.getOrbsLeft());
+        }
+        if (!maze.inBounds(player.row, player.col)) {
+            stats.violation("player off the board", seed, step, "at (" + player.row + ", " + player.col + ")");
+        } else if (maze.isWall(player.row, player.col)) {
+            stats.violation("player inside a wall", seed, step, "at (" + player.row + ", " + player.col + ")");
+        }
+        if (player.row != (int) (player.y / MazeSimulation.CELL_SIZE)
+                || player.col != (int) (player.x / MazeSimulation.CELL_SIZE)) {
+            stats.violation("player cell doesn't match position", seed, step, "cell (" + player.row + ", "
+                    + player.col + "), position (" + player.x + ", " + player.y + ")");
+        }
+        EnemySwarm enemies = game.getEnemies();
+        for (int i = 0; i < enemies.count; i++) {
+            if (maze.isWall(enemies.row[i], enemies.col[i])) {
+                stats.violation("enemy inside a wall or off the board", seed, step, "enemy " + i + " at ("
+                        + enemies.row[i] + ", " + enemies.col[i] + ")");
+            }
+        }
+        if (game.getLives() < 0 || game.getLives() > MazeSimulation.INITIAL_LIVES) {
+            stats.violation("lives out of range", seed, step, "lives " + game.getLives());
+        }
+        if (game.getLevel() < 1 || game.getLevel() > MazeSimulation.LEVELS) {
+            stats.violation("level out of range", seed, step, "level " + game.getLevel());
+        }
+        if (game.getTimeLeft() < 0) {
+            stats.violation("time left negative", seed, step, "timer " + game.getTimeLeft());
+        }
+        if (game.getScore() < lastScore) {
+            stats.violation("score went down", seed, step, lastScore + " to " + game.getScore());
+        }
+    }
+    
+    // Whenever the orb count or the board changes: the count has to match the
+    // orbs actually on the board. Endless mode only counts the chunks laid out so far
+    private static void checkOrbCount(MazeSimulation game, long seed, long step, SoakStats stats) {
+        if (MazeSimulation.ENDLESS) return;
+        MazeGrid maze = game.getMaze();
+        int onBoard = maze.count(MazeGrid.ORB) + maze.count(MazeGrid.POWER_ORB);
+        if (onBoard != game.getOrbsLeft()) {
+            stats.violation("orbs left doesn't match the board", seed, step, "orbsLeft " + game.getOrbsLeft()
+                    + ", " + onBoard + " on the board");
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int rows = Integer.getInteger("maze.rows", MazeSimulation.DEFAULT_ROWS);
+        int cols = Integer.getInteger("maze.cols", MazeSimulation.DEFAULT_COLS);
+        // Every core is busy playing already, so levels are laid out inline by
+        // default rather than queueing on the single background worker
+        if (System.getProperty("maze.pregenerate") == null) {
+            System.setProperty("maze.pregenerate", "0");
+        }
+        
+        System.out.printf("%d games, %dx%d, %s generator, seeds %d to %d, %d Hz, %d threads%n", games, rows, cols,
+                MazeSimulation.GENERATOR, seed, seed + games - 1, TICK_RATE, threads);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        SoakStats stats;
+        try {
+            stats = pool.submit(() -> IntStream.range(0, (int) games).parallel().collect(
+                    SoakStats::new,
+                    (thread, n) -> play(seed + n, rows, cols, thread),
+                    SoakStats::merge)).get();
+        } finally {
+            pool.shutdown();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        
+        System.out.printf("%d games in %.2f s: %.1f games/s, %.0f steps/s (%.0fx real time per thread)%n",
+                stats.games, elapsed, stats.games / elapsed, stats.steps / elapsed,
+                stats.steps * DT / elapsed / threads);
+        System.out.printf("Won %d (%.1f%%), lost %d (%.1f%%), stuck %d", stats.won, 100.0 * stats.won / stats.games,
+                stats.lost, 100.0 * stats.lost / stats.games, stats.stuck);
+        System.out.println(MazeSimulation.ENDLESS ? ", " + stats.survived + " still going at the "
+                + MAX_STEPS / TICK_RATE + " s cap" : "");
+        for (int level = 1; level <= MazeSimulation.LEVELS; level++) {
+            long reached = stats.reached[level];
+            System.out.printf("  level %d: reached %d, cleared %d (%.1f%%), lives lost to enemies %d, to the clock %d%n",
+                    level, reached, stats.cleared[level], reached == 0 ? 0 : 100.0 * stats.cleared[level] / reached,
+                    stats.caught[level], stats.timedOut[level]);
+        }
+        System.out.print(stats.stepsPerGame.format("steps per game", 10, 40));
+        
+        if (stats.violations.isEmpty()) {
+            System.out.println("No invariant violations");
+            return;
+        }
+        System.out.println("Invariant violations:");
+        stats.violations.forEach((kind, count) -> {
+            System.out.printf("  %s: %d steps%n", kind, count);
+            for (String example : stats.examples.get(kind)) {
+                System.out.println("    " + example);
+            }
+        });
+        System.exit(1);
+    }
+}
@@ -0,0 +1,212 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// Shortest-path distance from every open cell to the nearest of many targets -
+// every orb on the board, or a single cell such as the real exit - from one
+// breadth-first search seeded with all of them. Removing a target (an orb eaten)
+// doesn't search the board again: only the cells whose every shortest path led to
+// that target can get further away, so those are found by walking outwards from
+// it, and then refilled from the untouched cells around them. That costs the size
+// of the area the target was nearest for, however big the board and however many
+// targets there are. Following nextStep() from a cell walks a shortest path to
+// the nearest target in O(path length).
+final class TargetDistanceMap {
+    
+    static final int UNREACHABLE = FlowField.UNREACHABLE;
+    
+    private final int rows;
+    private final int cols;
+    private final int[] distance;
+    private final int[] queue;
+    private final int[] region; // cells whose distance a removal may change, in search order
+    private final boolean[] inRegion;
+    private final long[] seeds; // distance << 32 | cell, to refill the region from
+    private MazeGrid maze;
+    
+    TargetDistanceMap(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int cells = rows * cols;
+        distance = new int[cells];
+        queue = new int[cells];
+        region = new int[cells];
+        inRegion = new boolean[cells];
+        seeds = new long[cells];
+        Arrays.fill(distance, UNREACHABLE);
+    }
+    
+    // Every orb and power orb on the board becomes a target
+    void targetOrbs(MazeGrid maze) {
+        this.maze = maze;
+        Arrays.fill(distance, UNREACHABLE);
+        int tail = 0;
+        for (int cell = 0; cell < distance.length; cell++) {
+            byte type = maze.get(cell);
+            if (type == MazeGrid.ORB || type == MazeGrid.POWER_ORB) {
+                distance[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+        search(tail);
+    }
+    
+    // A single target cell
+    void targetCell(MazeGrid maze, int r, int c) {
+        this.maze = maze;
+        Arrays.fill(distance, UNREACHABLE);
+        if (maze.isWall(r, c)) return;
+        distance[r * cols + c] = 0;
+        queue[0] = r * cols + c;
+        search(1);
+    }
+    
+    // Breadth-first search from the first tail cells of the queue, all already at their distance
+    private void search(int tail) {
+        int head = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distance[cell] + 1;
+            int r = cell / cols;
+            int c = cell - r * cols;
+            if (r > 0 && visit(cell - cols, next)) queue[tail++] = cell - cols;
+            if (r < rows - 1 && visit(cell + cols, next)) queue[tail++] = cell + cols;
+            if (c > 0 && visit(cell - 1, next)) queue[tail++] = cell - 1;
+            if (c < cols - 1 && visit(cell + 1, next)) queue[tail++] = cell + 1;
+        }
+    }
+    
+    private boolean visit(int cell, int next) {
+        if (distance[cell] != UNREACHABLE || maze.get(cell) == MazeGrid.WALL) {
+            return false;
+        }
+        distance[cell] = next;
+        return true;
+    }
+    
+    // (r, c) is no longer a target; does nothing if it wasn't one
+    void removeTarget(int r, int c) {
+        int target = r * cols + c;
+        if (maze == null || distance[target] != 0) return;
+        
+        // The region: the target, then outwards, every cell whose neighbours one step
+        // nearer all lie in the region already. Found in order of distance, so those
+        // neighbours have all been looked at by the time a cell is
+        int size = 0;
+        inRegion[target] = true;
+        region[size++] = target;
+        for (int i = 0; i < size; i++) {
+            int cell = region[i];
+            int next = distance[cell] + 1;
+            int cr = cell / cols;
+            int cc = cell - cr * cols;
+            if (cr > 0) size = growRegion(cell - cols, next, size);
+            if (cr < rows - 1) size = growRegion(cell + cols, next, size);
+            if (cc > 0) size = growRegion(cell - 1, next, size);
+            if (cc < cols - 1) size = growRegion(cell + 1, next, size);
+        }
+        
+        // Each cell of the region starts from its nearest neighbour outside it
+        for (int i = 0; i < size; i++) {
+            distance[region[i]] = UNREACHABLE;
+        }
+        int seedCount = 0;
+        for (int i = 0; i < size; i++) {
+            int cell = region[i];
+            int best = nearestOutside(cell);
+            if (best != UNREACHABLE) {
+                distance[cell] = best + 1;
+                seeds[seedCount++] = (long) (best + 1) << 32 | cell;
+            }
+        }
+        Arrays.sort(seeds, 0, seedCount);
+        
+        // Then a search over the region that takes the seeds in as it reaches their
+        // distance, so cells are still settled in order of distance
+        int head = 0;
+        int tail = 0;
+        int nextSeed = 0;
+        while (head < tail || nextSeed < seedCount) {
+            int cell;
+            if (nextSeed < seedCount && (head == tail || (int) (seeds[nextSeed] >>> 32) <= distance[queue[head]])) {
+                long seed = seeds[nextSeed++];
+                cell = (int) seed;
+                if (distance[cell] != (int) (seed >>> 32)) continue; // got nearer through the region
+            } else {
+                cell = queue[head++];
+            }
+            int next = distance[cell] + 1;
+            int cr = cell / cols;
+            int cc = cell - cr * cols;
+            if (cr > 0 && refill(cell - cols, next)) queue[tail++] = cell - cols;
+            if (cr < rows - 1 && refill(cell + cols, next)) queue[tail++] = cell + cols;
+            if (cc > 0 && refill(cell - 1, next)) queue[tail++] = cell - 1;
+            if (cc < cols - 1 && refill(cell + 1, next)) queue[tail++] = cell + 1;
+        }
+        
+        for (int i = 0; i < size; i++) {
+            inRegion[region[i]] = false;
+        }
+    }
+    
+    private int growRegion(int cell, int next, int size) {
+        if (inRegion[cell] || distance[cell] != next || hasParentOutside(cell)) {
+            return size;
+        }
+        inRegion[cell] = true;
+        region[size] = cell;
+        return size + 1;
+    }
+    
+    // Whether a neighbour one step nearer a target is outside the region
+    private boolean hasParentOutside(int cell) {
+        int parent = distance[cell] - 1;
+        int r = cell / cols;
+        int c = cell - r * cols;
+        return r > 0 && distance[cell - cols] == parent && !inRegion[cell - cols]
+                || r < rows - 1 && distance[cell + cols] == parent && !inRegion[cell + cols]
+                || c > 0 && distance[cell - 1] == parent && !inRegion[cell - 1]
+                || c < cols - 1 && distance[cell + 1] == parent && !inRegion[cell + 1];
+    }
+    
+    // Smallest distance among the neighbours outside the region
+    private int nearestOutside(int cell) {
+        int r = cell / cols;
+        int c = cell - r * cols;
+        int best = UNREACHABLE;
+        if (r > 0 && !inRegion[cell - cols]) best = Math.min(best, distance[cell - cols]);
+        if (r < rows - 1 && !inRegion[cell + cols]) best = Math.min(best, distance[cell + cols]);
+        if (c > 0 && !inRegion[cell - 1]) best = Math.min(best, distance[cell - 1]);
+        if (c < cols - 1 && !inRegion[cell + 1]) best = Math.min(best, distance[cell + 1]);
+        return best;
+    }
+    
+    private boolean refill(int cell, int next) {
+        if (!inRegion[cell] || distance[cell] <= next) {
+            return false;
+        }
+        distance[cell] = next;
+        return true;
+    }
+    
+    // Path length from (r, c) to the nearest target, UNREACHABLE if there's none to reach
+    int distance(int r, int c) {
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            return UNREACHABLE;
+        }
+        return distance[r * cols + c];
+    }
+    
+    // Neighbour of (r, c) one step nearer the nearest target as a r * cols + c index,
+    // or -1 if there is none (on a target, or none to reach). Ties go up, down, left, right
+    int nextStep(int r, int c) {
+        int best = distance(r, c);
+        if (best == 0 || best == UNREACHABLE) {
+            return -1;
+        }
+        if (distance(r - 1, c) < best) return (r - 1) * cols + c;
+        if (distance(r + 1, c) < best) return (r + 1) * cols + c;
+        if (distance(r, c - 1) < best) return r * cols + c - 1;
+        return r * cols + c + 1;
+    }
+}
@@ -0,0 +1,35 @@
+package mazeescape;
+
+import java.util.Arrays;
+
+// Small non-negative ints turned into label text once and reused after that.
+// Only 0 to MAX_CACHED - 1 are kept, so the cache can't grow with the value;
+// anything outside that gets a new string each call
+final class TextCache {
+    
+    private static final int MAX_CACHED = 1024;
+    
+    private final String prefix;
+    private final String suffix;
+    private String[] texts = new String[64];
+    
+    TextCache(String prefix, String suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+    
+    String get(int value) {
+        if (value < 0 || value >= MAX_CACHED) {
+            return prefix + value + suffix;
+        }
+        if (value >= texts.length) {
+            texts = Arrays.copyOf(texts, Math.min(MAX_CACHED, Math.max(value + 1, texts.length * 2)));
+        }
+        String text = texts[value];
+        if (text == null) {
+            text = prefix + value + suffix;
+            texts[value] = text;
+        }
+        return text;
+    }
+}
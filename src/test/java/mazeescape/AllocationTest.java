@@ -0,0 +1,136 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Steady-state allocation of the whole per-step and per-frame path the window runs:
+// keys through the InputQueue, the step, the recorder and the HUD model on the
+// game loop side, the HUD labels and the board painted into an image on the EDT
+// side. Walks the player back and forth on level 1 (keeping enemies away and the
+// clock topped up so no game events fire), then counts the bytes this thread
+// allocates over 10,000 steps and frames
+class AllocationTest {
+    
+    private static final int ITERATIONS = 10_000;
+    
+    @Test
+    void tickAndRenderDoNotAllocate(@TempDir Path dir) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        
+        MazeSimulation game = new MazeSimulation(1, MazeSimulation.DEFAULT_ROWS, MazeSimulation.DEFAULT_COLS);
+        FrameTimings timings = new FrameTimings();
+        GameView view = new GameView(game, timings);
+        game.setListener(new MazeSimulation.Listener() {
+            @Override
+            public void orbEaten(int r, int c, boolean power) {
+                view.orbEaten(r, c);
+            }
+        });
+        InputQueue input = new InputQueue();
+        // The EDT is this thread here, so the HUD batch runs as soon as it's published
+        HudModel hud = new HudModel(new NoLabels(), Runnable::run, timings.hud);
+        double dt = 1.0 / GameLoop.DEFAULT_TICK_RATE;
+        try (SessionRecording.Recorder recorder = new SessionRecording.Recorder(dir.resolve("session.mzr"), 1,
+                MazeSimulation.DEFAULT_ROWS, MazeSimulation.DEFAULT_COLS, GameLoop.DEFAULT_TICK_RATE)) {
+            GameSession session = new GameSession(game, view, input, recorder, hud, timings, null);
+            EnemySwarm enemies = game.getEnemies();
+            int enemyRow = enemies.row[0];
+            int enemyCol = enemies.col[0];
+            Dimension size = view.getPreferredSize();
+            BufferedImage frame = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = frame.createGraphics();
+            input.sendCommand(MazeSimulation.START);
+            session.step(dt);
+            
+            // Warm up first so the walk has already eaten every orb on its path and the
+            // caches and JIT have settled; the second pass is the one that's measured
+            long allocated = 0;
+            for (int pass = 0; pass < 2; pass++) {
+                allocated = 0;
+                for (int i = 0; i < ITERATIONS; i++) {
+                    if (i % 600 == 0) {
+                        for (int e = 0; e < enemies.count; e++) {
+                            enemies.moveTo(e, enemyRow, enemyCol);
+                        }
+                    }
+                    if (game.getTimeLeft() < 10) {
+                        game.setTimeLeft(game.getLevelTime());
+                    }
+                    
+                    long before = threads.getThreadAllocatedBytes(threadId);
+                    if (i % 40 == 0) {
+                        // Turn around: let go of one arrow key and press the other
+                        boolean left = (i / 40) % 2 == 0;
+                        input.release(InputQueue.ARROW_KEYS, left ? MazeSimulation.RIGHT : MazeSimulation.LEFT);
+                        input.press(InputQueue.ARROW_KEYS, left ? MazeSimulation.LEFT : MazeSimulation.RIGHT);
+                    }
+                    session.step(dt);
+                    session.render(1.0);
+                    view.renderTo(g, size.width, size.height);
+                    allocated += threads.getThreadAllocatedBytes(threadId) - before;
+                }
+            }
+            g.dispose();
+            
+            // getThreadAllocatedBytes itself may allocate - take that out of the result
+            long overhead = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long before = threads.getThreadAllocatedBytes(threadId);
+                overhead += threads.getThreadAllocatedBytes(threadId) - before;
+            }
+            
+            assertEquals(MazeSimulation.INITIAL_LIVES, game.getLives(),
+                    "a game event fired during the check - the measurement isn't steady state");
+            assertFalse(game.isGameOver());
+            assertEquals(0, Math.max(0, allocated - overhead), "bytes allocated over " + ITERATIONS + " steps and frames");
+        }
+    }
+    
+    private static final class NoLabels implements HudModel.Labels {
+        @Override
+        public void showScore(int score) {
+        }
+        
+        @Override
+        public void showLevel(int level) {
+        }
+        
+        @Override
+        public void showSeconds(int seconds) {
+        }
+        
+        @Override
+        public void showOrbs(int orbs) {
+        }
+        
+        @Override
+        public void showLives(int lives) {
+        }
+        
+        @Override
+        public void showCombo(int combo) {
+        }
+        
+        @Override
+        public void showTimePercent(int timePercent) {
+        }
+        
+        @Override
+        public void showTimeColor(int timeColor) {
+        }
+        
+        @Override
+        public void showMessage(String message) {
+        }
+    }
+}
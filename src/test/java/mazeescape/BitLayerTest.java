@@ -0,0 +1,151 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitLayerTest {
+    
+    @Test
+    void rowFillCrossesWordBoundaries() {
+        // One open run from column 3 to 190, across three words, and one after a gap
+        BitLayer open = new BitLayer(1, 200);
+        for (int c = 3; c <= 190; c++) {
+            open.set(0, c);
+        }
+        for (int c = 192; c < 200; c++) {
+            open.set(0, c);
+        }
+        
+        for (int start : new int[]{3, 63, 64, 127, 128, 190}) {
+            BitLayer reach = BitLayer.floodFill(open, 0, start);
+            assertEquals(188, reach.count(), "from column " + start);
+            assertEquals(3, reach.nextSetCell(0));
+            assertFalse(reach.get(0, 191));
+            assertFalse(reach.get(0, 192));
+        }
+        assertEquals(8, BitLayer.floodFill(open, 0, 199).count());
+    }
+    
+    @Test
+    void fillFromAWallIsEmpty() {
+        BitLayer open = new BitLayer(5, 70);
+        open.setAll(true);
+        open.clear(2, 65);
+        
+        assertTrue(BitLayer.floodFill(open, 2, 65).isEmpty());
+        assertEquals(5 * 70 - 1, BitLayer.floodFill(open, 0, 0).count());
+    }
+    
+    @Test
+    void fillFollowsSwitchbacks() {
+        // A serpentine: every other row open, joined at alternating ends
+        int rows = 21;
+        int cols = 130;
+        BitLayer open = new BitLayer(rows, cols);
+        for (int r = 0; r < rows; r += 2) {
+            open.setRow(r, true);
+            if (r + 1 < rows) {
+                open.set(r + 1, (r / 2) % 2 == 0 ? cols - 1 : 0);
+            }
+        }
+        
+        BitLayer reach = BitLayer.floodFill(open, rows - 1, cols / 2);
+        assertEquals(open.count(), reach.count());
+    }
+    
+    @Test
+    void fillMatchesBreadthFirstSearch() {
+        Random rand = new Random(7);
+        for (int cols : new int[]{1, 7, 63, 64, 65, 100, 128, 129, 200}) {
+            for (int trial = 0; trial < 20; trial++) {
+                int rows = 1 + rand.nextInt(40);
+                BitLayer open = new BitLayer(rows, cols);
+                double density = 0.45 + 0.3 * rand.nextDouble();
+                for (int r = 0; r < rows; r++) {
+                    for (int c = 0; c < cols; c++) {
+                        if (rand.nextDouble() < density) {
+                            open.set(r, c);
+                        }
+                    }
+                }
+                int r = rand.nextInt(rows);
+                int c = rand.nextInt(cols);
+                
+                BitLayer reach = BitLayer.floodFill(open, r, c);
+                boolean[] expected = breadthFirst(open, r, c);
+                for (int cell = 0; cell < rows * cols; cell++) {
+                    assertEquals(expected[cell], reach.get(cell / cols, cell % cols),
+                            rows + "x" + cols + " from " + r + "," + c + " at cell " + cell);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void invertedStaysWithinTheBoard() {
+        BitLayer layer = new BitLayer(3, 70);
+        layer.set(1, 69);
+        
+        BitLayer inverse = layer.inverted();
+        assertEquals(3 * 70 - 1, inverse.count());
+        assertFalse(inverse.get(1, 69));
+    }
+    
+    @Test
+    void nextSetCellVisitsEveryCellInOrder() {
+        BitLayer layer = new BitLayer(4, 100);
+        int[] cells = {0, 63, 64, 99, 100, 250, 399};
+        for (int cell : cells) {
+            layer.set(cell / 100, cell % 100);
+        }
+        
+        int found = 0;
+        for (int cell = layer.nextSetCell(0); cell >= 0; cell = layer.nextSetCell(cell + 1)) {
+            assertEquals(cells[found++], cell);
+        }
+        assertEquals(cells.length, found);
+    }
+    
+    @Test
+    void shiftUpMovesRowsAndFillsTheBottom() {
+        BitLayer layer = new BitLayer(4, 65);
+        layer.set(0, 1);
+        layer.set(2, 64);
+        
+        layer.shiftUp(2, true);
+        
+        assertTrue(layer.get(0, 64));
+        assertFalse(layer.get(0, 1));
+        assertEquals(1 + 2 * 65, layer.count());
+    }
+    
+    private static boolean[] breadthFirst(BitLayer open, int r, int c) {
+        int rows = open.getRows();
+        int cols = open.getCols();
+        boolean[] seen = new boolean[rows * cols];
+        if (!open.get(r, c)) return seen;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        seen[r * cols + c] = true;
+        queue.add(r * cols + c);
+        int[] dr = {-1, 1, 0, 0};
+        int[] dc = {0, 0, -1, 1};
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            for (int d = 0; d < 4; d++) {
+                int nr = cell / cols + dr[d];
+                int nc = cell % cols + dc[d];
+                if (nr >= 0 && nr < rows && nc >= 0 && nc < cols && open.get(nr, nc) && !seen[nr * cols + nc]) {
+                    seen[nr * cols + nc] = true;
+                    queue.add(nr * cols + nc);
+                }
+            }
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,135 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EllerGeneratorTest {
+    
+    private static final int[][] SIZES = {{7, 7}, {8, 9}, {15, 19}, {16, 16}, {31, 64}, {64, 65}, {101, 37}};
+    
+    @Test
+    void everyOpenCellIsConnected() {
+        for (double braid : new double[]{0, 0.5, 1}) {
+            EllerGenerator generator = new EllerGenerator(braid);
+            for (int[] size : SIZES) {
+                for (long seed = 0; seed < 20; seed++) {
+                    MazeGrid maze = generator.generate(size[0], size[1], new Random(seed));
+                    String board = size[0] + "x" + size[1] + " seed " + seed + " braid " + braid;
+                    
+                    assertEquals(size[0] * size[1], maze.count(MazeGrid.WALL) + maze.count(MazeGrid.EMPTY),
+                            board + ": only walls and paths");
+                    assertEquals(maze.count(MazeGrid.EMPTY), maze.reachableFrom(0, 0).count(), board);
+                    assertOpenRing(maze, board);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void carvedRowsMakeAPerfectMaze() {
+        for (int[] size : SIZES) {
+            for (long seed = 0; seed < 20; seed++) {
+                // The rows as generate() carves them, before the ring and braiding
+                int rows = size[0];
+                int cols = size[1];
+                MazeGrid maze = new MazeGrid(rows, cols);
+                maze.fill(MazeGrid.WALL);
+                EllerGenerator.Rows carver = new EllerGenerator.Rows(cols);
+                Random rand = new Random(seed);
+                int height = (rows - 1) / 2 + 1;
+                for (int i = 0; i < height; i++) {
+                    boolean lastRow = i == height - 1;
+                    carver.carve(maze, 2 * i, lastRow, !lastRow, rand);
+                }
+                
+                // A spanning tree of the maze cells: connected, one passage fewer than cells
+                int cells = height * ((cols - 1) / 2 + 1);
+                int passages = maze.count(MazeGrid.EMPTY) - cells;
+                String board = rows + "x" + cols + " seed " + seed;
+                assertEquals(cells - 1, passages, board);
+                assertEquals(maze.count(MazeGrid.EMPTY), maze.reachableFrom(0, 0).count(), board);
+            }
+        }
+    }
+    
+    @Test
+    void fullBraidLeavesNoDeadEnds() {
+        EllerGenerator generator = new EllerGenerator(1);
+        for (int[] size : SIZES) {
+            for (long seed = 0; seed < 20; seed++) {
+                MazeGrid maze = generator.generate(size[0], size[1], new Random(seed));
+                assertEquals(0, deadEnds(maze), size[0] + "x" + size[1] + " seed " + seed);
+            }
+        }
+    }
+    
+    @Test
+    void braidOpensAShareOfDeadEnds() {
+        int[] deadEnds = new int[3];
+        double[] braids = {0, 0.5, 1};
+        for (int i = 0; i < braids.length; i++) {
+            EllerGenerator generator = new EllerGenerator(braids[i]);
+            for (long seed = 0; seed < 20; seed++) {
+                deadEnds[i] += deadEnds(generator.generate(41, 61, new Random(seed)));
+            }
+        }
+        
+        assertTrue(deadEnds[0] > 0);
+        // Half the dead ends get a wall opened, and some of those join two at once
+        assertTrue(deadEnds[1] < deadEnds[0] * 0.7 && deadEnds[1] > deadEnds[0] * 0.1,
+                deadEnds[1] + " of " + deadEnds[0]);
+        assertEquals(0, deadEnds[2]);
+    }
+    
+    @Test
+    void sameSeedSameMaze() {
+        EllerGenerator generator = new EllerGenerator(0.5);
+        MazeGrid a = generator.generate(33, 47, new Random(99));
+        MazeGrid b = generator.generate(33, 47, new Random(99));
+        for (int r = 0; r < 33; r++) {
+            for (int c = 0; c < 47; c++) {
+                assertEquals(a.get(r, c), b.get(r, c));
+            }
+        }
+    }
+    
+    @Test
+    void braidOutsideZeroToOneIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new EllerGenerator(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> new EllerGenerator(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new EllerGenerator(Double.NaN));
+    }
+    
+    private static void assertOpenRing(MazeGrid maze, String board) {
+        int rows = maze.getRows();
+        int cols = maze.getCols();
+        for (int r = 0; r < rows; r++) {
+            assertTrue(!maze.isWall(r, 0) && !maze.isWall(r, cols - 1), board + " row " + r);
+        }
+        for (int c = 0; c < cols; c++) {
+            assertTrue(!maze.isWall(0, c) && !maze.isWall(rows - 1, c), board + " col " + c);
+        }
+    }
+    
+    // Maze cells inside the ring with a single way out
+    private static int deadEnds(MazeGrid maze) {
+        int count = 0;
+        for (int r = 2; r < maze.getRows() - 1; r += 2) {
+            for (int c = 2; c < maze.getCols() - 1; c += 2) {
+                if (maze.isWall(r, c)) continue;
+                int open = 0;
+                if (!maze.isWall(r - 1, c)) open++;
+                if (!maze.isWall(r + 1, c)) open++;
+                if (!maze.isWall(r, c - 1)) open++;
+                if (!maze.isWall(r, c + 1)) open++;
+                if (open == 1) count++;
+            }
+        }
+        return count;
+    }
+}
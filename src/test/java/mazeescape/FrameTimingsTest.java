@@ -0,0 +1,72 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameTimingsTest {
+    
+    private static final String[] NAMES = {"tick", "frame", "paint", "present", "hud", "input", "gc"};
+    
+    @Test
+    void exportHasHeaderThenEveryHistogram(@TempDir Path dir) throws Exception {
+        FrameTimings timings = new FrameTimings();
+        timings.tick.record(2_000_000);
+        timings.tick.record(2_000_000);
+        timings.tick.record(9_000_000);
+        timings.gc.record(15_000_000);
+        Path file = dir.resolve("timings.txt");
+        
+        timings.export(file, 60, "canvas, 2 buffers, blitting");
+        
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertTrue(lines.get(0).startsWith("# Maze Escape frame timings, "), lines.get(0));
+        assertTrue(lines.get(1).startsWith("# " + System.getProperty("java.vm.name") + " "), lines.get(1));
+        assertTrue(lines.get(1).endsWith(", " + Runtime.getRuntime().availableProcessors()
+                + " cpus, tick rate 60 Hz, renderer canvas, 2 buffers, blitting"), lines.get(1));
+        
+        // Every histogram gets its summary, in order, with its bucket rows after it
+        int line = 2;
+        for (String name : NAMES) {
+            assertTrue(lines.get(line).startsWith("# " + name + ": count "), lines.get(line));
+            line++;
+            while (line < lines.size() && !lines.get(line).startsWith("#")) {
+                assertTrue(lines.get(line).startsWith(name + " "), lines.get(line));
+                line++;
+            }
+        }
+        assertEquals(lines.size(), line);
+        
+        assertEquals(List.of("tick 1998848 2031615 2", "tick 8912896 9175039 1"), rowsOf(lines, "tick"));
+        assertEquals(List.of("gc 14942208 15204351 1"), rowsOf(lines, "gc"));
+        assertEquals(List.of(), rowsOf(lines, "paint"));
+        assertTrue(lines.contains("# paint: count 0, mean 0 ns, p50 0, p90 0, p99 0, p99.9 0, max 0 ns"));
+    }
+    
+    @Test
+    void overlayHasHeaderAndALinePerHistogram() {
+        FrameTimings timings = new FrameTimings();
+        timings.hud.record(500_000);
+        
+        String[] lines = timings.lines();
+        
+        assertEquals(timings.lineCount(), lines.length);
+        assertEquals(FrameTimings.HEADER, lines[0]);
+        for (int i = 0; i < NAMES.length; i++) {
+            assertTrue(lines[i + 1].startsWith(NAMES[i] + " "), lines[i + 1]);
+            assertEquals(FrameTimings.HEADER.length(), lines[i + 1].length(), lines[i + 1]);
+        }
+        assertEquals(String.format("%-8s %8d %8.2f %8.2f %8.2f %8.2f", "hud", 1, 0.5, 0.5, 0.5, 0.5), lines[5]);
+    }
+    
+    private static List<String> rowsOf(List<String> lines, String name) {
+        return lines.stream().filter(line -> line.startsWith(name + " ")).toList();
+    }
+}
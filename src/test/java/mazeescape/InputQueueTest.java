@@ -0,0 +1,126 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputQueueTest {
+    
+    @Test
+    void tapBetweenStepsCountsForOneStep() {
+        InputQueue queue = new InputQueue();
+        queue.press(InputQueue.ARROW_KEYS, MazeSimulation.LEFT);
+        queue.release(InputQueue.ARROW_KEYS, MazeSimulation.LEFT);
+        
+        assertEquals(MazeSimulation.LEFT, queue.poll());
+        assertTrue(queue.pressedAt() != 0);
+        assertEquals(0, queue.poll());
+        assertEquals(0, queue.pressedAt());
+    }
+    
+    @Test
+    void heldKeyCountsEveryStepUntilReleased() {
+        InputQueue queue = new InputQueue();
+        queue.press(InputQueue.ARROW_KEYS, MazeSimulation.UP);
+        
+        assertEquals(MazeSimulation.UP, queue.poll());
+        assertEquals(MazeSimulation.UP, queue.poll());
+        // Only the step the key went down in has a press time
+        assertEquals(0, queue.pressedAt());
+        
+        queue.release(InputQueue.ARROW_KEYS, MazeSimulation.UP);
+        assertEquals(0, queue.poll());
+    }
+    
+    @Test
+    void sourcesAreHeldSeparately() {
+        InputQueue queue = new InputQueue();
+        queue.press(InputQueue.ARROW_KEYS, MazeSimulation.UP);
+        queue.press(InputQueue.WASD_KEYS, MazeSimulation.UP);
+        queue.poll();
+        
+        // Letting go of W doesn't cancel the up arrow still held
+        queue.release(InputQueue.WASD_KEYS, MazeSimulation.UP);
+        assertEquals(MazeSimulation.UP, queue.poll());
+        queue.release(InputQueue.ARROW_KEYS, MazeSimulation.UP);
+        assertEquals(0, queue.poll());
+    }
+    
+    @Test
+    void autoRepeatIsNotQueuedAgain() {
+        InputQueue queue = new InputQueue();
+        queue.press(InputQueue.ARROW_KEYS, MazeSimulation.RIGHT);
+        queue.poll();
+        for (int i = 0; i < 1000; i++) {
+            queue.press(InputQueue.ARROW_KEYS, MazeSimulation.RIGHT);
+        }
+        
+        assertEquals(MazeSimulation.RIGHT, queue.poll());
+        assertEquals(0, queue.pressedAt());
+    }
+    
+    @Test
+    void commandsAreSentOnce() {
+        InputQueue queue = new InputQueue();
+        queue.sendCommand(MazeSimulation.PAUSE);
+        queue.sendCommand(MazeSimulation.RESTART);
+        queue.press(InputQueue.BUTTONS, MazeSimulation.DOWN);
+        
+        assertEquals(MazeSimulation.PAUSE | MazeSimulation.RESTART | MazeSimulation.DOWN, queue.poll());
+        assertEquals(MazeSimulation.DOWN, queue.poll());
+    }
+    
+    @Test
+    void fullQueueStillKnowsWhatIsHeld() {
+        InputQueue queue = new InputQueue();
+        // Far more taps than the ring holds before the loop gets to them
+        for (int i = 0; i < 1000; i++) {
+            queue.press(InputQueue.ARROW_KEYS, MazeSimulation.LEFT);
+            queue.release(InputQueue.ARROW_KEYS, MazeSimulation.LEFT);
+        }
+        queue.press(InputQueue.ARROW_KEYS, MazeSimulation.DOWN);
+        
+        // The taps that made it in still count, and the held key is never lost
+        assertEquals(MazeSimulation.LEFT | MazeSimulation.DOWN, queue.poll());
+        assertEquals(MazeSimulation.DOWN, queue.poll());
+        
+        // Once drained, taps are queued again
+        queue.press(InputQueue.ARROW_KEYS, MazeSimulation.UP);
+        queue.release(InputQueue.ARROW_KEYS, MazeSimulation.UP);
+        assertEquals(MazeSimulation.UP | MazeSimulation.DOWN, queue.poll());
+    }
+    
+    @Test
+    void tapsFromAnotherThreadAreNeverLost() throws Exception {
+        InputQueue queue = new InputQueue();
+        int taps = 5_000;
+        AtomicInteger tapped = new AtomicInteger();
+        AtomicInteger polled = new AtomicInteger();
+        // The EDT's side: a whole tap, then wait for the step that picks it up
+        Thread edt = new Thread(() -> {
+            for (int i = 0; i < taps; i++) {
+                int direction = i % 2 == 0 ? MazeSimulation.LEFT : MazeSimulation.RIGHT;
+                queue.press(InputQueue.ARROW_KEYS, direction);
+                queue.release(InputQueue.ARROW_KEYS, direction);
+                tapped.set(i + 1);
+                while (polled.get() == i) {
+                    Thread.yield();
+                }
+            }
+        });
+        edt.setDaemon(true);
+        edt.start();
+        for (int i = 0; i < taps; i++) {
+            while (tapped.get() == i) {
+                Thread.yield();
+            }
+            assertEquals(i % 2 == 0 ? MazeSimulation.LEFT : MazeSimulation.RIGHT, queue.poll(), "tap " + i);
+            polled.set(i + 1);
+        }
+        edt.join();
+        assertEquals(0, queue.poll());
+    }
+}
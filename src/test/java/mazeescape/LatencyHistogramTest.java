@@ -0,0 +1,143 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    
+    private static final long LARGEST = (1L << 40) - 1; // what the top bucket ends at
+    
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.mean());
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(0, histogram.percentile(0.999));
+        assertEquals(String.format("%-8s %8d %8.2f %8.2f %8.2f %8.2f", "tick", 0, 0.0, 0.0, 0.0, 0.0),
+                histogram.format("tick"));
+    }
+    
+    @Test
+    void singleSampleIsEveryPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_234_567);
+        
+        assertEquals(1, histogram.count());
+        assertEquals(1_234_567, histogram.max());
+        assertEquals(1_234_567, histogram.mean());
+        // Its bucket reaches higher, but nothing was recorded above the sample
+        assertEquals(1_234_567, histogram.percentile(0));
+        assertEquals(1_234_567, histogram.percentile(0.5));
+        assertEquals(1_234_567, histogram.percentile(1));
+    }
+    
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 0; nanos < 32; nanos++) {
+            histogram.record(nanos);
+        }
+        
+        assertEquals(0, histogram.percentile(1.0 / 32));
+        assertEquals(15, histogram.percentile(0.5));
+        assertEquals(31, histogram.percentile(1));
+    }
+    
+    @Test
+    void percentilesAreWithinABucketWidth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+        
+        assertBucketAbove(500_000_000L, histogram.percentile(0.5));
+        assertBucketAbove(990_000_000L, histogram.percentile(0.99));
+        assertEquals(1_000_000_000L, histogram.percentile(0.999));
+        assertEquals(1_000_000_000L, histogram.percentile(1));
+        assertEquals(500_500_000.0, histogram.mean(), 1e-3);
+    }
+    
+    @Test
+    void outOfRangeValuesLandInTheEndBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(LARGEST + 1);
+        
+        assertEquals(3, histogram.count());
+        assertEquals(LARGEST, histogram.max());
+        assertEquals(0, histogram.percentile(0.3));
+        assertEquals(LARGEST, histogram.percentile(0.5));
+        assertEquals(LARGEST, histogram.percentile(1));
+        
+        // Both overflowing samples share the top bucket
+        String[] rows = rows(histogram);
+        assertEquals(3, rows.length);
+        assertEquals("t 0 0 1", rows[1]);
+        assertTrue(rows[2].endsWith(" " + LARGEST + " 2"), rows[2]);
+    }
+    
+    @Test
+    void resetForgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.reset();
+        
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(0.5));
+    }
+    
+    @Test
+    void rowsCoverEachSampleAndDontOverlap() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] samples = {7, 31, 32, 33, 1000, 1001, 65_535, 65_536, 3_000_000_000L};
+        for (long sample : samples) {
+            histogram.record(sample);
+        }
+        
+        String[] rows = rows(histogram);
+        assertEquals("# t: count 9, mean " + String.format("%.0f", histogram.mean()) + " ns, p50 1007, p90 "
+                + histogram.percentile(0.9) + ", p99 3000000000, p99.9 3000000000, max 3000000000 ns", rows[0]);
+        long previousTo = -1;
+        int sample = 0;
+        for (int i = 1; i < rows.length; i++) {
+            String[] fields = rows[i].split(" ");
+            assertEquals(4, fields.length, rows[i]);
+            assertEquals("t", fields[0]);
+            long from = Long.parseLong(fields[1]);
+            long to = Long.parseLong(fields[2]);
+            long count = Long.parseLong(fields[3]);
+            assertTrue(from > previousTo && from <= to, rows[i]);
+            // A bucket holds values within about 3% of each other
+            assertTrue(to - from <= from / 32, rows[i]);
+            for (long n = 0; n < count; n++, sample++) {
+                assertTrue(samples[sample] >= from && samples[sample] <= to, samples[sample] + " in " + rows[i]);
+            }
+            previousTo = to;
+        }
+        assertEquals(samples.length, sample);
+    }
+    
+    // The reported value is the top of the bucket the true one is in: never below
+    // it, and no more than a bucket width (1/32) above
+    private static void assertBucketAbove(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 32, expected + " reported as " + actual);
+    }
+    
+    private static String[] rows(LatencyHistogram histogram) {
+        StringWriter text = new StringWriter();
+        try (PrintWriter out = new PrintWriter(text)) {
+            histogram.writeTo(out, "t");
+        }
+        return text.toString().split(System.lineSeparator());
+    }
+}
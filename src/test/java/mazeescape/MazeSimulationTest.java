@@ -0,0 +1,178 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MazeSimulationTest {
+    
+    private static final double DT = 1.0 / GameLoop.DEFAULT_TICK_RATE;
+    private static final int CELL = MazeSimulation.CELL_SIZE;
+    private static final int[] DIRECTIONS = {MazeSimulation.UP, MazeSimulation.DOWN, MazeSimulation.LEFT,
+            MazeSimulation.RIGHT};
+    
+    @Test
+    void sameSeedAndInputsPlayOutTheSame() {
+        for (long seed = 0; seed < 4; seed++) {
+            MazeSimulation a = new MazeSimulation(seed, 15, 19);
+            MazeSimulation b = new MazeSimulation(seed, 15, 19);
+            AutoPlayer bot = new AutoPlayer();
+            for (int step = 0; step < 20_000; step++) {
+                int input = bot.nextInput(a);
+                a.step(DT, input);
+                b.step(DT, input);
+                assertSameState(a, b, "seed " + seed + " step " + step);
+            }
+        }
+    }
+    
+    @Test
+    void sameSeedAndRandomInputsPlayOutTheSame() {
+        // Random presses, pauses and restarts, over game overs and new games
+        MazeSimulation a = new MazeSimulation(9, MazeSimulation.DEFAULT_ROWS, MazeSimulation.DEFAULT_COLS);
+        MazeSimulation b = new MazeSimulation(9, MazeSimulation.DEFAULT_ROWS, MazeSimulation.DEFAULT_COLS);
+        Random inputs = new Random(9);
+        int held = 0;
+        for (int step = 0; step < 30_000; step++) {
+            if (step % 30 == 0) {
+                held = 1 << inputs.nextInt(4);
+            }
+            int input = a.isStarted() ? held : MazeSimulation.START;
+            if (inputs.nextInt(2000) == 0) input |= MazeSimulation.PAUSE;
+            if (inputs.nextInt(5000) == 0) input |= MazeSimulation.RESTART;
+            a.step(DT, input);
+            b.step(DT, input);
+            assertSameState(a, b, "step " + step);
+        }
+    }
+    
+    @Test
+    void playerEndsUpInTheSamePlaceAtAnyTickRate() {
+        // The same random direction held for a second at a time, with nothing but the
+        // walls in the way; after every second the player has to be in the same place
+        int[] rates = {2, 15, 60};
+        int seconds = 30;
+        double[][] positions = new double[rates.length][2 * seconds];
+        for (int i = 0; i < rates.length; i++) {
+            double dt = 1.0 / rates[i];
+            MazeSimulation game = startWithoutEnemies(1);
+            Random inputs = new Random(1);
+            for (int second = 0; second < seconds; second++) {
+                int held = DIRECTIONS[inputs.nextInt(4)];
+                for (int step = 0; step < rates[i]; step++) {
+                    game.setTimeLeft(game.getLevelTime());
+                    game.step(dt, held);
+                }
+                positions[i][2 * second] = game.getPlayer().x;
+                positions[i][2 * second + 1] = game.getPlayer().y;
+            }
+            assertEquals(1, game.getLevel(), "a game event fired at " + rates[i] + " Hz");
+            assertEquals(MazeSimulation.INITIAL_LIVES, game.getLives(), "a game event fired at " + rates[i] + " Hz");
+        }
+        for (int i = 1; i < rates.length; i++) {
+            for (int second = 0; second < seconds; second++) {
+                String when = "after " + (second + 1) + " s at " + rates[i] + " Hz";
+                assertEquals(positions[0][2 * second], positions[i][2 * second], when);
+                assertEquals(positions[0][2 * second + 1], positions[i][2 * second + 1], when);
+            }
+        }
+    }
+    
+    @Test
+    void playerNeverOverlapsAWall() {
+        for (int rate : new int[]{2, 15, 60, 144}) {
+            double dt = 1.0 / rate;
+            MazeSimulation game = startWithoutEnemies(rate);
+            Random inputs = new Random(rate);
+            int held = 0;
+            for (int step = 0; step < 120 * rate; step++) {
+                if (step % Math.max(1, rate / 4) == 0) {
+                    held = DIRECTIONS[inputs.nextInt(4)];
+                }
+                game.setTimeLeft(game.getLevelTime());
+                game.step(dt, held);
+                
+                // Every cell the player's box covers, corner to corner, on the board as
+                // it is now - the walk may clear a level
+                MazeGrid maze = game.getMaze();
+                MazeSimulation.Player player = game.getPlayer();
+                int top = (int) Math.floor(player.y / CELL);
+                int left = (int) Math.floor(player.x / CELL);
+                int bottom = (int) Math.ceil(player.y / CELL + 1) - 1;
+                int right = (int) Math.ceil(player.x / CELL + 1) - 1;
+                String where = rate + " Hz step " + step + ", player at (" + player.x + ", " + player.y + ")";
+                assertFalse(maze.isWall(top, left) || maze.isWall(top, right)
+                        || maze.isWall(bottom, left) || maze.isWall(bottom, right), where);
+                assertEquals(top, player.row, where);
+                assertEquals(left, player.col, where);
+            }
+        }
+    }
+    
+    @Test
+    void turnTakenLateOrEarlyLinesUpWithTheOpening() {
+        MazeSimulation game = startWithoutEnemies(1);
+        MazeGrid maze = game.getMaze();
+        int checked = 0;
+        for (int r = 1; r < maze.getRows(); r++) {
+            for (int c = 0; c + 1 < maze.getCols(); c++) {
+                if (maze.isWall(r, c) || maze.isWall(r, c + 1) || maze.isWall(r - 1, c) == maze.isWall(r - 1, c + 1)) {
+                    continue;
+                }
+                // Straddling two open cells under a passage up from just one of them
+                int open = maze.isWall(r - 1, c) ? c + 1 : c;
+                for (int offset : new int[]{3, CELL / 2, CELL - 3}) {
+                    place(game.getPlayer(), c * CELL + offset, r * CELL);
+                    for (int step = 0; step < 20; step++) {
+                        game.setTimeLeft(game.getLevelTime());
+                        game.step(DT, MazeSimulation.UP);
+                    }
+                    String from = "cell " + r + "," + c + " offset " + offset;
+                    assertEquals(open * CELL, game.getPlayer().x, from);
+                    assertTrue(game.getPlayer().y < r * CELL, from);
+                    checked++;
+                }
+            }
+        }
+        assertTrue(checked > 0, "no passage to turn into on the board");
+    }
+    
+    // A game on a default size board, started, with the enemies taken off
+    private static MazeSimulation startWithoutEnemies(long seed) {
+        MazeSimulation game = new MazeSimulation(seed, MazeSimulation.DEFAULT_ROWS, MazeSimulation.DEFAULT_COLS);
+        game.step(DT, MazeSimulation.START);
+        // Off the board's cell index too, so none is left to run into
+        game.getEnemies().reset(0, 1);
+        return game;
+    }
+    
+    private static void place(MazeSimulation.Player player, double x, double y) {
+        player.x = player.prevX = x;
+        player.y = player.prevY = y;
+        player.row = (int) (y / CELL);
+        player.col = (int) (x / CELL);
+    }
+    
+    private static void assertSameState(MazeSimulation a, MazeSimulation b, String when) {
+        assertEquals(a.getScore(), b.getScore(), when);
+        assertEquals(a.getLevel(), b.getLevel(), when);
+        assertEquals(a.getLives(), b.getLives(), when);
+        assertEquals(a.getOrbsLeft(), b.getOrbsLeft(), when);
+        assertEquals(a.getTimeLeft(), b.getTimeLeft(), when);
+        assertEquals(a.isGameOver(), b.isGameOver(), when);
+        assertEquals(a.getRowOffset(), b.getRowOffset(), when);
+        assertEquals(a.getPlayer().x, b.getPlayer().x, when);
+        assertEquals(a.getPlayer().y, b.getPlayer().y, when);
+        EnemySwarm ea = a.getEnemies();
+        EnemySwarm eb = b.getEnemies();
+        assertEquals(ea.count, eb.count, when);
+        for (int i = 0; i < ea.count; i++) {
+            assertEquals(ea.row[i], eb.row[i], when + " enemy " + i);
+            assertEquals(ea.col[i], eb.col[i], when + " enemy " + i);
+        }
+    }
+}
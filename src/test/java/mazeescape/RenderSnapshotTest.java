@@ -0,0 +1,134 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderSnapshotTest {
+    
+    @Test
+    void readerGetsWhatWasLastPublished() {
+        RenderSnapshot.Exchange frames = new RenderSnapshot.Exchange();
+        RenderSnapshot first = frames.back();
+        first.cameraX = 1;
+        frames.publish();
+        
+        RenderSnapshot read = frames.latest();
+        assertSame(first, read);
+        // Nothing new: the reader keeps the one it has
+        assertSame(read, frames.latest());
+        
+        // Two publishes before the reader looks again: it only sees the newer
+        frames.back().cameraX = 2;
+        frames.publish();
+        RenderSnapshot third = frames.back();
+        third.cameraX = 3;
+        frames.publish();
+        assertSame(third, frames.latest());
+    }
+    
+    @Test
+    void writerNeverGetsTheSnapshotBeingRead() {
+        RenderSnapshot.Exchange frames = new RenderSnapshot.Exchange();
+        frames.publish();
+        RenderSnapshot read = frames.latest();
+        for (int i = 0; i < 10; i++) {
+            assertNotSame(read, frames.back());
+            frames.publish();
+            assertNotSame(read, frames.back());
+        }
+        // The reader moves on, and the one it left goes back into circulation
+        RenderSnapshot next = frames.latest();
+        assertNotSame(read, next);
+        assertNotSame(next, frames.back());
+    }
+    
+    @Test
+    void snapshotsArePooled() {
+        RenderSnapshot.Exchange frames = new RenderSnapshot.Exchange();
+        RenderSnapshot[] seen = new RenderSnapshot[3];
+        int distinct = 0;
+        for (int i = 0; i < 100; i++) {
+            RenderSnapshot back = frames.back();
+            if (Arrays.stream(seen, 0, distinct).noneMatch(s -> s == back)) {
+                assertTrue(distinct < 3, "a fourth snapshot");
+                seen[distinct++] = back;
+            }
+            frames.publish();
+            if (i % 3 == 0) {
+                frames.latest();
+            }
+        }
+        assertEquals(3, distinct);
+    }
+    
+    @Test
+    void tilesStayShownUntilNoSnapshotTheReaderCanGetListsThem() {
+        RenderSnapshot.Exchange frames = new RenderSnapshot.Exchange();
+        BufferedImage a = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        BufferedImage b = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        
+        // Only in the writer's own snapshot: free to draw into
+        frames.back().setTiles(new BufferedImage[]{a}, new long[]{0}, 1);
+        assertFalse(frames.tileShown(a));
+        
+        // Published, then taken by the reader, then replaced twice by b
+        frames.publish();
+        assertTrue(frames.tileShown(a));
+        frames.latest();
+        for (int i = 0; i < 2; i++) {
+            frames.back().setTiles(new BufferedImage[]{b}, new long[]{0}, 1);
+            frames.publish();
+            assertTrue(frames.tileShown(a), "still the reader's");
+        }
+        // The reader moves on to b, and a is free once the writer's next publish
+        // takes the snapshot the reader left back
+        frames.latest();
+        frames.back().setTiles(new BufferedImage[]{b}, new long[]{0}, 1);
+        frames.publish();
+        assertFalse(frames.tileShown(a));
+        assertTrue(frames.tileShown(b));
+    }
+    
+    @Test
+    void readerNeverSeesAFrameHalfWritten() throws Exception {
+        RenderSnapshot.Exchange frames = new RenderSnapshot.Exchange();
+        int count = 200_000;
+        // Every field of frame n holds n; a snapshot mixing two frames would show it
+        Thread loop = new Thread(() -> {
+            for (int n = 1; n <= count; n++) {
+                RenderSnapshot frame = frames.back();
+                frame.cameraX = n;
+                frame.setEnemyCount(8);
+                Arrays.fill(frame.enemyX, n);
+                frame.cameraY = n;
+                frames.publish();
+            }
+        });
+        loop.setDaemon(true);
+        loop.start();
+        
+        int last = 0;
+        while (last < count) {
+            RenderSnapshot frame = frames.latest();
+            int n = frame.cameraX;
+            Thread.yield();
+            assertEquals(n, frame.cameraY);
+            for (int i = 0; i < frame.enemyCount; i++) {
+                assertEquals(n, frame.enemyX[i]);
+            }
+            assertTrue(n >= last, "frame " + n + " after " + last);
+            last = n;
+            if (!loop.isAlive() && frames.latest().cameraX == last) break;
+        }
+        loop.join();
+        assertEquals(count, frames.latest().cameraX);
+    }
+}
@@ -0,0 +1,112 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SessionRecordingTest {
+    
+    private static final int TICK_RATE = 60;
+    
+    @Test
+    void replayHandsBackEveryInput(@TempDir Path dir) throws Exception {
+        // Short taps, long holds (runs that need several varint bytes) and commands
+        Random rand = new Random(5);
+        int[] inputs = new int[200_000];
+        for (int i = 0; i < inputs.length; ) {
+            int run = rand.nextInt(10) == 0 ? 1 + rand.nextInt(50_000) : 1 + rand.nextInt(20);
+            int input = rand.nextInt(256);
+            for (int end = Math.min(inputs.length, i + run); i < end; i++) {
+                inputs[i] = input;
+            }
+        }
+        Path file = dir.resolve("inputs.mzr");
+        MazeSimulation game = new MazeSimulation(1, 15, 19);
+        try (SessionRecording.Recorder recorder = new SessionRecording.Recorder(file, 42, 15, 19, TICK_RATE)) {
+            for (int input : inputs) {
+                recorder.record(input, game);
+            }
+        }
+        
+        SessionRecording.Replay replay = new SessionRecording.Replay(file);
+        assertEquals(42, replay.seed);
+        assertEquals(15, replay.rows);
+        assertEquals(19, replay.cols);
+        assertEquals(TICK_RATE, replay.tickRate);
+        assertArrayEquals(inputs, replayed(replay, inputs.length));
+        assertEquals(-1, replay.next());
+    }
+    
+    @Test
+    void replayedSessionEndsWhereTheGameDid(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("session.mzr");
+        MazeSimulation game = new MazeSimulation(7, 15, 19);
+        AutoPlayer bot = new AutoPlayer();
+        double dt = 1.0 / TICK_RATE;
+        try (SessionRecording.Recorder recorder = new SessionRecording.Recorder(file, 7, 15, 19, TICK_RATE)) {
+            for (int step = 0; step < 20_000 && !game.isGameOver(); step++) {
+                int input = bot.nextInput(game);
+                game.step(dt, input);
+                recorder.record(input, game);
+            }
+        }
+        
+        SessionRecording.Replay replay = new SessionRecording.Replay(file);
+        MazeSimulation again = new MazeSimulation(replay.seed, replay.rows, replay.cols);
+        for (int input = replay.next(); input >= 0; input = replay.next()) {
+            again.step(1.0 / replay.tickRate, input);
+        }
+        assertEquals(game.getScore(), again.getScore());
+        assertEquals(game.getLevel(), again.getLevel());
+        assertEquals(game.getLives(), again.getLives());
+        assertEquals(game.getPlayer().x, again.getPlayer().x);
+        assertEquals(game.getPlayer().y, again.getPlayer().y);
+    }
+    
+    @Test
+    void recordingCutShortPlaysUpToItsLastRun(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("cut.mzr");
+        MazeSimulation game = new MazeSimulation(1, 15, 19);
+        int[] inputs = {1, 1, 1, 2, 2, 4, 4, 4, 4};
+        try (SessionRecording.Recorder recorder = new SessionRecording.Recorder(file, 1, 15, 19, TICK_RATE)) {
+            for (int input : inputs) {
+                recorder.record(input, game);
+            }
+        }
+        // Drop the final state and the end marker, then the last run's XOR byte:
+        // the game was killed mid-write
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(dir.resolve("cut-end.mzr"), Arrays.copyOf(bytes, bytes.length - (1 + 8 + 3 * 4)));
+        Files.write(dir.resolve("cut-run.mzr"), Arrays.copyOf(bytes, bytes.length - (1 + 8 + 3 * 4) - 1));
+        
+        assertArrayEquals(inputs, replayed(new SessionRecording.Replay(dir.resolve("cut-end.mzr")), 9));
+        assertArrayEquals(Arrays.copyOf(inputs, 5),
+                replayed(new SessionRecording.Replay(dir.resolve("cut-run.mzr")), 5));
+    }
+    
+    @Test
+    void otherFilesAreRejected(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("not-a-recording.mzr");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6});
+        
+        assertThrows(java.io.IOException.class, () -> new SessionRecording.Replay(file));
+    }
+    
+    // The next count inputs, then checks the replay has no more
+    private static int[] replayed(SessionRecording.Replay replay, int count) {
+        int[] inputs = new int[count];
+        for (int i = 0; i < count; i++) {
+            inputs[i] = replay.next();
+        }
+        assertEquals(-1, replay.next());
+        return inputs;
+    }
+}
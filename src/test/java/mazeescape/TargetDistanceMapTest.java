@@ -0,0 +1,123 @@
+package mazeescape;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TargetDistanceMapTest {
+    
+    @Test
+    void removingTargetsMatchesAFullRebuild() {
+        for (double braid : new double[]{0, 0.3, 1}) {
+            for (long seed = 0; seed < 8; seed++) {
+                Random rand = new Random(seed);
+                MazeGrid maze = new EllerGenerator(braid).generate(21 + 2 * (int) seed, 31, rand);
+                List<Integer> orbs = scatterOrbs(maze, rand, 0.3);
+                TargetDistanceMap incremental = new TargetDistanceMap(maze.getRows(), maze.getCols());
+                incremental.targetOrbs(maze);
+                
+                // Eat them in a random order; after each, the map must be the one a new search gives
+                Collections.shuffle(orbs, rand);
+                for (int cell : orbs) {
+                    int r = cell / maze.getCols();
+                    int c = cell % maze.getCols();
+                    maze.set(r, c, MazeGrid.EMPTY);
+                    incremental.removeTarget(r, c);
+                    
+                    TargetDistanceMap rebuilt = new TargetDistanceMap(maze.getRows(), maze.getCols());
+                    rebuilt.targetOrbs(maze);
+                    assertSameDistances(rebuilt, incremental, maze,
+                            "braid " + braid + " seed " + seed + " after eating " + r + "," + c);
+                }
+                assertEquals(TargetDistanceMap.UNREACHABLE, incremental.distance(0, 0));
+            }
+        }
+    }
+    
+    @Test
+    void removingANonTargetChangesNothing() {
+        Random rand = new Random(3);
+        MazeGrid maze = new EllerGenerator(0.5).generate(25, 25, rand);
+        scatterOrbs(maze, rand, 0.2);
+        TargetDistanceMap map = new TargetDistanceMap(25, 25);
+        map.targetOrbs(maze);
+        TargetDistanceMap untouched = new TargetDistanceMap(25, 25);
+        untouched.targetOrbs(maze);
+        
+        for (int r = 0; r < 25; r++) {
+            for (int c = 0; c < 25; c++) {
+                if (map.distance(r, c) != 0) {
+                    map.removeTarget(r, c);
+                }
+            }
+        }
+        assertSameDistances(untouched, map, maze, "after removing non-targets");
+    }
+    
+    @Test
+    void nextStepWalksAShortestPath() {
+        Random rand = new Random(11);
+        MazeGrid maze = new EllerGenerator(0.5).generate(31, 41, rand);
+        TargetDistanceMap map = new TargetDistanceMap(31, 41);
+        map.targetCell(maze, 30, 40);
+        
+        int r = 0;
+        int c = 0;
+        int steps = 0;
+        int expected = map.distance(r, c);
+        assertTrue(expected > 0 && expected != TargetDistanceMap.UNREACHABLE);
+        for (int next = map.nextStep(r, c); next >= 0; next = map.nextStep(r, c)) {
+            int nr = next / 41;
+            int nc = next % 41;
+            assertEquals(1, Math.abs(nr - r) + Math.abs(nc - c));
+            assertTrue(!maze.isWall(nr, nc));
+            assertEquals(map.distance(r, c) - 1, map.distance(nr, nc));
+            r = nr;
+            c = nc;
+            steps++;
+        }
+        assertEquals(expected, steps);
+        assertEquals(30, r);
+        assertEquals(40, c);
+    }
+    
+    @Test
+    void wallTargetReachesNothing() {
+        MazeGrid maze = new MazeGrid(9, 9);
+        maze.fill(MazeGrid.EMPTY);
+        maze.set(4, 4, MazeGrid.WALL);
+        TargetDistanceMap map = new TargetDistanceMap(9, 9);
+        map.targetCell(maze, 4, 4);
+        
+        assertEquals(TargetDistanceMap.UNREACHABLE, map.distance(0, 0));
+        assertEquals(-1, map.nextStep(0, 0));
+    }
+    
+    private static List<Integer> scatterOrbs(MazeGrid maze, Random rand, double share) {
+        List<Integer> orbs = new ArrayList<>();
+        for (int r = 0; r < maze.getRows(); r++) {
+            for (int c = 0; c < maze.getCols(); c++) {
+                if (!maze.isWall(r, c) && rand.nextDouble() < share) {
+                    maze.set(r, c, rand.nextInt(10) == 0 ? MazeGrid.POWER_ORB : MazeGrid.ORB);
+                    orbs.add(maze.index(r, c));
+                }
+            }
+        }
+        return orbs;
+    }
+    
+    private static void assertSameDistances(TargetDistanceMap expected, TargetDistanceMap actual, MazeGrid maze,
+            String when) {
+        for (int r = 0; r < maze.getRows(); r++) {
+            for (int c = 0; c < maze.getCols(); c++) {
+                assertEquals(expected.distance(r, c), actual.distance(r, c), when + ", cell " + r + "," + c);
+            }
+        }
+    }
+}